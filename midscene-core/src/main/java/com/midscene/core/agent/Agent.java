@@ -4,19 +4,18 @@ import com.midscene.core.cache.TaskCache;
 import com.midscene.core.config.MidsceneConfig;
 import com.midscene.core.context.Context;
 import com.midscene.core.model.AIModel;
-import com.midscene.core.model.AnthropicModel;
-import com.midscene.core.model.AzureOpenAiModel;
-import com.midscene.core.model.GeminiModel;
-import com.midscene.core.model.MistralModel;
-import com.midscene.core.model.OllamaModel;
-import com.midscene.core.model.OpenAIModel;
-import com.midscene.core.model.QwenModel;
+import com.midscene.core.model.AIModelFactory;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.model.TokenEstimator;
 import com.midscene.core.pojo.options.InputOptions;
 import com.midscene.core.pojo.options.LocateOptions;
 import com.midscene.core.pojo.options.ScrollOptions;
 import com.midscene.core.pojo.options.WaitOptions;
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.service.PageDriver;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -26,25 +25,11 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class Agent {
 
-  private static final String INIT_MUTATION_OBSERVER_SCRIPT = """
-      window.__midscene_mutation_happened = true; // Set to true initially to ensure first check
-      if (!window.__midscene_observer) {
-        window.__midscene_observer = new MutationObserver(() => {
-          window.__midscene_mutation_happened = true;
-        });
-        window.__midscene_observer.observe(document.body, { childList: true, subtree: true, attributes: true, characterData: true });
-      }
-      """;
-
-  private static final String CHECK_AND_RESET_MUTATION_SCRIPT = """
-      var happened = window.__midscene_mutation_happened;
-      window.__midscene_mutation_happened = false;
-      return happened;
-      """;
-
   private final Orchestrator orchestrator;
   private final PageDriver driver;
+  private final DomAssertionEvaluator domAssertionEvaluator;
   private TaskCache cache;
+  private boolean domAssertions = true;
 
   public Agent(PageDriver driver, AIModel aiModel) {
     this(driver, aiModel, TaskCache.disabled(), 3);
@@ -58,6 +43,7 @@ public class Agent {
     this.driver = driver;
     this.cache = cache != null ? cache : TaskCache.disabled();
     this.orchestrator = new Orchestrator(driver, aiModel, this.cache, maxRetries);
+    this.domAssertionEvaluator = new DomAssertionEvaluator(driver);
   }
 
   /**
@@ -68,17 +54,7 @@ public class Agent {
    * @return A new Agent instance
    */
   public static Agent create(MidsceneConfig config, PageDriver driver) {
-    AIModel model = switch (config.getProvider()) {
-      case OPENAI -> new OpenAIModel(config.getApiKey(), config.getModelName());
-      case GEMINI -> new GeminiModel(config.getApiKey(), config.getModelName());
-      case ANTHROPIC -> new AnthropicModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-      case MISTRAL -> new MistralModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-      case AZURE_OPEN_AI -> new AzureOpenAiModel(config.getApiKey(), config.getBaseUrl());
-      case OLLAMA -> new OllamaModel(config.getBaseUrl(), config.getModelName());
-      case QWEN, THOUSAND_QUESTIONS -> new QwenModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-    };
-
-    return new Agent(driver, model, TaskCache.disabled(), config.getMaxRetries());
+    return create(config, driver, TaskCache.disabled());
   }
 
   /**
@@ -90,17 +66,18 @@ public class Agent {
    * @return A new Agent instance
    */
   public static Agent create(MidsceneConfig config, PageDriver driver, TaskCache cache) {
-    AIModel model = switch (config.getProvider()) {
-      case OPENAI -> new OpenAIModel(config.getApiKey(), config.getModelName());
-      case GEMINI -> new GeminiModel(config.getApiKey(), config.getModelName());
-      case ANTHROPIC -> new AnthropicModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-      case MISTRAL -> new MistralModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-      case AZURE_OPEN_AI -> new AzureOpenAiModel(config.getApiKey(), config.getBaseUrl());
-      case OLLAMA -> new OllamaModel(config.getBaseUrl(), config.getModelName());
-      case QWEN, THOUSAND_QUESTIONS -> new QwenModel(config.getApiKey(), config.getModelName(), config.getBaseUrl());
-    };
-
-    return new Agent(driver, model, cache, config.getMaxRetries());
+    AIModel model = AIModelFactory.create(config);
+
+    Agent agent = new Agent(driver, model, cache, config.getMaxRetries());
+    agent.setReplanningCycleLimit(config.getReplanningCycleLimit());
+    agent.setHistoryTokenBudget(config.getHistoryTokenBudget());
+    agent.setTokenEstimator(TokenEstimator.forProvider(config.getProvider()));
+    agent.setDomChunkLimit(config.getDomChunkLimit());
+    agent.setDomAssertions(config.isDomAssertions());
+    if (config.getScreenshotChangeThreshold() != null) {
+      agent.setScreenshotChangeDetector(new ScreenshotChangeDetector(config.getScreenshotChangeThreshold()));
+    }
+    return agent;
   }
 
   /**
@@ -316,8 +293,7 @@ public class Agent {
    * @return true or false based on the AI's evaluation
    */
   public boolean aiBoolean(String prompt) {
-    String answer = aiQuery(prompt + " Answer with only 'true' or 'false'.");
-    return answer.toLowerCase().contains("true");
+    return evaluateBoolean(prompt, ModelOperation.BOOLEAN);
   }
 
   /**
@@ -327,7 +303,11 @@ public class Agent {
    * @return The numeric value extracted from the AI's response
    */
   public double aiNumber(String prompt) {
-    String answer = aiQuery(prompt + " Answer with only a number.");
+    String answer = orchestrator.query(prompt + " Answer with only a number.", ModelOperation.NUMBER);
+    if (answer == null || answer.isBlank()) {
+      log.warn("Empty AI response for number query: {}", prompt);
+      return 0.0;
+    }
     try {
       return Double.parseDouble(answer.replaceAll("[^0-9.-]", ""));
     } catch (NumberFormatException e) {
@@ -349,13 +329,14 @@ public class Agent {
   // ========== Assertion Actions ==========
 
   /**
-   * Assert a condition on the page.
+   * Assert a condition on the page. Simple conditions about quoted text or the state of a labelled element are checked
+   * in the page first; a failing page check is confirmed by the model.
    *
    * @param assertion The assertion to verify
    * @throws AssertionError if the assertion fails
    */
   public void aiAssert(String assertion) {
-    boolean result = aiBoolean("Is the following true? " + assertion);
+    boolean result = checkCondition(assertion, "Is the following true? " + assertion, false);
     if (!result) {
       throw new AssertionError("AI Assertion failed: " + assertion);
     }
@@ -363,49 +344,69 @@ public class Agent {
   }
 
   /**
-   * Wait for a condition to become true.
+   * Wait for a condition to become true. The condition is checked once and then again each time the page changed and
+   * settled, so the model is not consulted while nothing happens on the page. Simple conditions are checked in the
+   * page without the model; if such a wait times out, the model is asked once before giving up.
    *
    * @param assertion The condition to wait for
    * @param options   Wait options including timeout
    */
   public void aiWaitFor(String assertion, WaitOptions options) {
-    long timeoutMs = options.getTimeoutMs();
-    long checkIntervalMs = options.getCheckIntervalMs();
-    long startTime = System.currentTimeMillis();
+    long deadline = System.currentTimeMillis() + options.getTimeoutMs();
+    boolean eventDriven = true;
 
-    // Initialize MutationObserver
     try {
-      driver.executeScript(INIT_MUTATION_OBSERVER_SCRIPT);
+      driver.observeMutations();
     } catch (Exception e) {
-      log.warn("Failed to inject MutationObserver, falling back to polling: {}", e.getMessage());
+      log.warn("Failed to observe page changes, falling back to polling: {}", e.getMessage());
+      eventDriven = false;
     }
 
-    while (System.currentTimeMillis() - startTime < timeoutMs) {
-      boolean shouldCheck = true;
-      try {
-        Object result = driver.executeScript(CHECK_AND_RESET_MUTATION_SCRIPT);
-        if (result instanceof Boolean) {
-          shouldCheck = (Boolean) result;
-        }
-      } catch (Exception e) {
-        // Fallback to true if script fails
-        shouldCheck = true;
-      }
-
-      if (shouldCheck) {
-        boolean result = aiBoolean("Is the following currently true? " + assertion);
+    // The condition is checked once up front and then only after the page changed and settled
+    String prompt = "Is the following currently true? " + assertion;
+    boolean changed = true;
+    while (true) {
+      if (changed) {
+        boolean result = checkCondition(assertion, prompt, true);
         if (result) {
           log.info("Wait condition satisfied: {}", assertion);
           return;
         }
       }
 
+      long remainingMs = deadline - System.currentTimeMillis();
+      if (remainingMs <= 0) {
+        break;
+      }
+      if (eventDriven) {
+        try {
+          changed = driver.awaitMutations(options.getQuietPeriodMs(), remainingMs);
+          continue;
+        } catch (Exception e) {
+          log.warn("Failed to wait for page changes, falling back to polling: {}", e.getMessage());
+          eventDriven = false;
+        }
+      }
       try {
-        Thread.sleep(checkIntervalMs);
+        Thread.sleep(Math.min(options.getCheckIntervalMs(), remainingMs));
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
         throw new RuntimeException("Wait interrupted", e);
       }
+      changed = true;
+    }
+
+    // A change the observer did not report, e.g. in an unobserved attribute, still gets one last check
+    if (!changed && checkCondition(assertion, prompt, true)) {
+      log.info("Wait condition satisfied: {}", assertion);
+      return;
+    }
+
+    // The page check may miss text the model can see, e.g. in images or frames
+    if (domAssertions && domAssertionEvaluator.evaluate(assertion) != DomAssertionEvaluator.Verdict.INCONCLUSIVE
+        && checkConditionWithModel(assertion, prompt)) {
+      log.info("Wait condition satisfied: {}", assertion);
+      return;
     }
 
     if (options.isThrowOnTimeout()) {
@@ -446,6 +447,25 @@ public class Agent {
     return orchestrator.getContext();
   }
 
+  /**
+   * Gets the actions executed by the last {@link #aiAction(String)}, in order, if it completed without failed
+   * attempts.
+   *
+   * @return the executed actions, empty if the last instruction needed retries
+   */
+  public List<ActionsItem> getLastTrajectory() {
+    return orchestrator.getLastTrajectory();
+  }
+
+  /**
+   * Sets a callback invoked with every planned action right before it is executed.
+   *
+   * @param actionListener the callback, or null to remove it
+   */
+  public void setActionListener(Consumer<ActionsItem> actionListener) {
+    orchestrator.setActionListener(actionListener);
+  }
+
   /**
    * Gets the underlying page driver.
    *
@@ -473,8 +493,112 @@ public class Agent {
     this.cache = cache != null ? cache : TaskCache.disabled();
   }
 
+  /**
+   * Sets the maximum number of plan-execute-observe cycles a single {@link #aiAction(String)} may take.
+   *
+   * @param replanningCycleLimit the cycle limit
+   */
+  public void setReplanningCycleLimit(int replanningCycleLimit) {
+    orchestrator.setReplanningCycleLimit(replanningCycleLimit);
+  }
+
+  /**
+   * Sets the token budget of the conversation sent while planning an {@link #aiAction(String)}. Only the latest
+   * screenshot and page source are kept; older turns are summarized as text once the budget is exceeded.
+   *
+   * @param tokenBudget the budget in estimated tokens
+   */
+  public void setHistoryTokenBudget(int tokenBudget) {
+    orchestrator.setHistoryTokenBudget(tokenBudget);
+  }
+
+  /**
+   * Sets the estimator used to keep planning requests within the token budget, e.g.
+   * {@link TokenEstimator#forProvider}.
+   *
+   * @param tokenEstimator the estimator matching the model's tokenizer
+   */
+  public void setTokenEstimator(TokenEstimator tokenEstimator) {
+    orchestrator.setTokenEstimator(tokenEstimator);
+  }
+
+  /**
+   * Sets how many page elements are sent with each {@link #aiAction(String)} planning call. The elements are ranked
+   * by relevance to the instruction and sent together with their ancestors, instead of the whole page source.
+   *
+   * @param domChunkLimit the number of elements, or 0 to send the whole page source
+   */
+  public void setDomChunkLimit(int domChunkLimit) {
+    orchestrator.setDomChunkLimit(domChunkLimit);
+  }
+
+  /**
+   * Makes {@link #aiQuery}, {@link #aiBoolean}, {@link #aiAssert} and {@link #aiWaitFor} reuse the previous answer to
+   * the same question while the visible page has not changed, instead of asking the model again.
+   *
+   * @param changeDetector the detector comparing screenshots, or null to always ask the model
+   */
+  public void setScreenshotChangeDetector(ScreenshotChangeDetector changeDetector) {
+    orchestrator.setChangeDetector(changeDetector);
+  }
+
+  /**
+   * Enables checking simple {@link #aiAssert} and {@link #aiWaitFor} conditions in the page before asking the model.
+   *
+   * @param domAssertions whether to check conditions in the page first
+   */
+  public void setDomAssertions(boolean domAssertions) {
+    this.domAssertions = domAssertions;
+  }
+
+  /**
+   * Sets background knowledge given to the model with every {@link #aiAction(String)}, e.g. site conventions or
+   * credentials to use.
+   *
+   * @param actionContext the context, or null to clear it
+   */
+  public void setAiActionContext(String actionContext) {
+    orchestrator.setActionContext(actionContext);
+  }
+
   // ========== Private Helper Methods ==========
 
+  private boolean evaluateBoolean(String prompt, ModelOperation operation) {
+    String answer = orchestrator.query(prompt + " Answer with only 'true' or 'false'.", operation);
+    if (answer == null || answer.isBlank()) {
+      log.warn("Empty AI response for boolean query, treating it as false: {}", prompt);
+      return false;
+    }
+    return answer.toLowerCase().contains("true");
+  }
+
+  /**
+   * Checks a condition in the page if possible and otherwise with the model.
+   *
+   * @param assertion     the condition as written by the user
+   * @param prompt        the question asked to the model
+   * @param trustDomFalse whether a failing page check is final; otherwise the model confirms it
+   * @return whether the condition holds
+   */
+  private boolean checkCondition(String assertion, String prompt, boolean trustDomFalse) {
+    if (domAssertions) {
+      DomAssertionEvaluator.Verdict verdict = domAssertionEvaluator.evaluate(assertion);
+      if (verdict == DomAssertionEvaluator.Verdict.TRUE
+          || (verdict == DomAssertionEvaluator.Verdict.FALSE && trustDomFalse)) {
+        boolean result = verdict == DomAssertionEvaluator.Verdict.TRUE;
+        orchestrator.getContext().logAssertion(assertion, result, "DOM");
+        return result;
+      }
+    }
+    return checkConditionWithModel(assertion, prompt);
+  }
+
+  private boolean checkConditionWithModel(String assertion, String prompt) {
+    boolean result = evaluateBoolean(prompt, ModelOperation.ASSERT);
+    orchestrator.getContext().logAssertion(assertion, result, "AI");
+    return result;
+  }
+
   private void runAction(String action, String locatePrompt, LocateOptions options) {
     String instruction = buildLocateInstruction(action, locatePrompt, options);
     aiAction(instruction);
@@ -0,0 +1,141 @@
+package com.midscene.core.agent;
+
+import com.midscene.core.service.PageDriver;
+import com.midscene.core.utils.ObjectMapper;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Checks simple conditions directly in the page instead of asking the model. Recognised are quoted text on the page
+ * ("the page shows 'Order confirmed'") and the state of a labelled element ("the Submit button is disabled"). Anything
+ * else, and any check that cannot decide, is {@link Verdict#INCONCLUSIVE} and left to the model.
+ */
+@Log4j2
+public class DomAssertionEvaluator {
+
+  private static final String QUOTED = "[\"'\u201C\u2018](.+?)[\"'\u201D\u2019]";
+  private static final String ROLE = "(button|link|checkbox|field|input)";
+
+  private static final Pattern PAGE_TEXT = Pattern.compile(
+      "(?i)^(?:the\\s+)?(?:page|screen)?\\s*(does\\s+not\\s+|doesn't\\s+|no\\s+longer\\s+)?"
+          + "(?:shows?|displays?|contains?|includes?|has|have)\\s+(?:the\\s+)?(?:text\\s+|message\\s+)?"
+          + QUOTED + "$");
+  private static final Pattern TEXT_STATE = Pattern.compile(
+      "(?i)^(?:the\\s+)?(?:text\\s+|message\\s+)?" + QUOTED + "\\s+is\\s+(not\\s+|no\\s+longer\\s+)?"
+          + "(shown|displayed|visible|present|hidden|gone)$");
+  private static final Pattern ELEMENT_STATE = Pattern.compile(
+      "(?i)^(?:the\\s+)?(?:" + QUOTED + "|([\\w ]+?))\\s+" + ROLE + "\\s+is\\s+(not\\s+)?"
+          + "(enabled|disabled|visible|hidden|checked|unchecked)$");
+
+  private static final String TEXT_SCRIPT = """
+      (() => {
+        const normalize = text => text.replace(/\\s+/g, ' ').trim().toLowerCase();
+        return normalize(document.body ? document.body.innerText : '').includes(normalize(%s));
+      })()""";
+
+  private static final String ELEMENT_SCRIPT = """
+      (() => {
+        const selectors = {
+          button: 'button, input[type=button], input[type=submit], input[type=reset], [role=button]',
+          link: 'a, [role=link]',
+          checkbox: 'input[type=checkbox], [role=checkbox], [role=switch]',
+          field: 'input, textarea, select, [contenteditable=true]',
+          input: 'input, textarea, select, [contenteditable=true]'
+        };
+        const normalize = text => typeof text === 'string' ? text.replace(/\\s+/g, ' ').trim().toLowerCase() : null;
+        const label = normalize(%s);
+        const names = el => [el.innerText, el.value, el.id, el.labels && el.labels[0] && el.labels[0].innerText,
+          ...['aria-label', 'placeholder', 'title', 'name'].map(name => el.getAttribute(name))];
+        const matches = [...document.querySelectorAll(selectors[%s])]
+          .filter(el => names(el).some(name => normalize(name) === label));
+        if (matches.length === 0) {
+          return null;
+        }
+        const state = el => {
+          switch (%s) {
+            case 'enabled':
+              return !(el.disabled || el.getAttribute('aria-disabled') === 'true');
+            case 'visible':
+              return el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden';
+            default:
+              return el.checked === true || el.getAttribute('aria-checked') === 'true';
+          }
+        };
+        const states = matches.map(state);
+        return states.every(value => value === states[0]) ? states[0] : null;
+      })()""";
+
+  private final PageDriver driver;
+
+  public DomAssertionEvaluator(PageDriver driver) {
+    this.driver = driver;
+  }
+
+  /**
+   * Evaluates the condition in the page if it matches a known pattern.
+   *
+   * @param assertion the condition in natural language
+   * @return whether the condition holds, or {@link Verdict#INCONCLUSIVE} if the page cannot decide it
+   */
+  public Verdict evaluate(String assertion) {
+    String condition = assertion.trim().replaceAll("[.!]+$", "");
+
+    Matcher matcher = PAGE_TEXT.matcher(condition);
+    if (matcher.matches()) {
+      return check(String.format(TEXT_SCRIPT, literal(matcher.group(2))), matcher.group(1) != null);
+    }
+
+    matcher = TEXT_STATE.matcher(condition);
+    if (matcher.matches()) {
+      String state = matcher.group(3).toLowerCase(Locale.ROOT);
+      boolean negated = (matcher.group(2) != null) != (state.equals("hidden") || state.equals("gone"));
+      return check(String.format(TEXT_SCRIPT, literal(matcher.group(1))), negated);
+    }
+
+    matcher = ELEMENT_STATE.matcher(condition);
+    if (matcher.matches()) {
+      String label = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+      String state = matcher.group(5).toLowerCase(Locale.ROOT);
+      boolean inverse = state.equals("disabled") || state.equals("hidden") || state.equals("unchecked");
+      String checkedState = switch (state) {
+        case "enabled", "disabled" -> "enabled";
+        case "visible", "hidden" -> "visible";
+        default -> "checked";
+      };
+      String script = String.format(ELEMENT_SCRIPT, literal(label),
+          literal(matcher.group(3).toLowerCase(Locale.ROOT)), literal(checkedState));
+      return check(script, (matcher.group(4) != null) != inverse);
+    }
+
+    return Verdict.INCONCLUSIVE;
+  }
+
+  private Verdict check(String script, boolean negated) {
+    Object result;
+    try {
+      result = driver.evaluate(script);
+    } catch (Exception e) {
+      log.debug("DOM check failed, leaving the condition to the model: {}", e.getMessage());
+      return Verdict.INCONCLUSIVE;
+    }
+    if (!(result instanceof Boolean value)) {
+      return Verdict.INCONCLUSIVE;
+    }
+    return value != negated ? Verdict.TRUE : Verdict.FALSE;
+  }
+
+  private static String literal(String value) {
+    return ObjectMapper.writeValueAsString(value);
+  }
+
+  /**
+   * The outcome of a DOM check.
+   */
+  public enum Verdict {
+    TRUE,
+    FALSE,
+    INCONCLUSIVE
+  }
+}
@@ -1,8 +1,13 @@
 package com.midscene.core.agent;
 
 import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.service.PageDriver;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import lombok.extern.log4j.Log4j2;
 
 /**
@@ -11,12 +16,77 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class Executor {
 
+  private static final Set<AIActionType> BATCHABLE_ACTIONS = EnumSet.of(AIActionType.CLICK, AIActionType.TAP,
+      AIActionType.DOUBLE_CLICK, AIActionType.RIGHT_CLICK, AIActionType.HOVER, AIActionType.TYPE_TEXT,
+      AIActionType.INPUT, AIActionType.CLEAR_INPUT, AIActionType.KEYBOARD_PRESS);
+  private static final Set<AIActionType> BATCH_ENDING_ACTIONS = EnumSet.of(AIActionType.CLICK, AIActionType.TAP,
+      AIActionType.DOUBLE_CLICK, AIActionType.RIGHT_CLICK, AIActionType.KEYBOARD_PRESS);
+
   private final PageDriver driver;
 
   public Executor(PageDriver driver) {
     this.driver = driver;
   }
 
+  /**
+   * Executes the actions of a plan in order. Consecutive coordinate-based pointer and keyboard actions are handed to
+   * the driver as one batch. A click or key press may navigate away, so it is always the last action of a batch.
+   *
+   * @param actions the actions to execute
+   */
+  public void execute(List<ActionsItem> actions) {
+    int start = 0;
+    while (start < actions.size()) {
+      int end = batchEnd(actions, start);
+      if (end - start > 1) {
+        List<ActionsItem> batch = actions.subList(start, end);
+        log.info("Executing batch of {} actions", batch.size());
+        driver.executeBatch(batch, this::execute);
+      } else {
+        execute(actions.get(start));
+      }
+      start = end;
+    }
+  }
+
+  /**
+   * Executes the actions of a plan in order, calling a listener right before each action runs. The listener may inspect
+   * the page as each action finds it, so the actions are not batched while a listener is set.
+   *
+   * @param actions    the actions to execute
+   * @param beforeEach the listener, or null to batch actions as {@link #execute(List)} does
+   */
+  public void execute(List<ActionsItem> actions, Consumer<ActionsItem> beforeEach) {
+    if (beforeEach == null) {
+      execute(actions);
+      return;
+    }
+    for (ActionsItem action : actions) {
+      beforeEach.accept(action);
+      execute(action);
+    }
+  }
+
+  private int batchEnd(List<ActionsItem> actions, int start) {
+    int end = start;
+    while (end < actions.size() && isBatchable(actions.get(end))) {
+      if (BATCH_ENDING_ACTIONS.contains(actions.get(end++).getType())) {
+        break;
+      }
+    }
+    return Math.max(end, start + 1);
+  }
+
+  private boolean isBatchable(ActionsItem action) {
+    if (!BATCHABLE_ACTIONS.contains(action.getType())) {
+      return false;
+    }
+    if (action.getType() == AIActionType.KEYBOARD_PRESS) {
+      return Objects.nonNull(action.getKeyName());
+    }
+    return !hasSelector(action) && hasLocate(action);
+  }
+
   /**
    * Executes a single action item.
    *
@@ -117,7 +187,9 @@ public class Executor {
   }
 
   private void executeScrollDown(ActionsItem action) {
-    if (hasSelector(action)) {
+    if (Objects.nonNull(action.getDistance())) {
+      scrollBy(action, 0, action.getDistance());
+    } else if (hasSelector(action)) {
       driver.scrollDown(action.getSelectorType(), action.getElementSelector());
     } else if (hasLocate(action)) {
       driver.scrollDown(action.getLocate());
@@ -125,7 +197,9 @@ public class Executor {
   }
 
   private void executeScrollUp(ActionsItem action) {
-    if (hasSelector(action)) {
+    if (Objects.nonNull(action.getDistance())) {
+      scrollBy(action, 0, -action.getDistance());
+    } else if (hasSelector(action)) {
       driver.scrollUp(action.getSelectorType(), action.getElementSelector());
     } else if (hasLocate(action)) {
       driver.scrollUp(action.getLocate());
@@ -133,6 +207,16 @@ public class Executor {
   }
 
   private void executeScroll(ActionsItem action) {
+    String edge = scrollEdge(action.getScrollType());
+    if (Objects.nonNull(edge)) {
+      if (hasSelector(action)) {
+        driver.scrollToEdge(action.getSelectorType(), action.getElementSelector(), edge);
+      } else {
+        driver.scrollToEdge(action.getLocate(), edge);
+      }
+      return;
+    }
+
     String direction = action.getDirection();
     if (Objects.isNull(direction)) {
       direction = "down";
@@ -143,19 +227,51 @@ public class Executor {
       case "down" -> executeScrollDown(action);
       case "left" -> {
         int distance = Objects.nonNull(action.getDistance()) ? action.getDistance() : 200;
-        if (hasLocate(action)) {
+        if (hasLocate(action) && !hasSelector(action)) {
           driver.scrollLeft(action.getLocate(), distance);
+        } else {
+          scrollBy(action, -distance, 0);
         }
       }
       case "right" -> {
         int distance = Objects.nonNull(action.getDistance()) ? action.getDistance() : 200;
-        if (hasLocate(action)) {
+        if (hasLocate(action) && !hasSelector(action)) {
           driver.scrollRight(action.getLocate(), distance);
+        } else {
+          scrollBy(action, distance, 0);
         }
       }
     }
   }
 
+  private void scrollBy(ActionsItem action, int deltaX, int deltaY) {
+    if (hasSelector(action)) {
+      driver.scrollBy(action.getSelectorType(), action.getElementSelector(), deltaX, deltaY);
+    } else {
+      driver.scrollBy(action.getLocate(), deltaX, deltaY);
+    }
+  }
+
+  /**
+   * Maps a scroll type to the edge it scrolls to, accepting both the {@code scrollToBottom} and the
+   * {@code untilBottom} spelling.
+   *
+   * @param scrollType the scroll type of the action
+   * @return "top", "bottom", "left" or "right", or null for a single scroll
+   */
+  private String scrollEdge(String scrollType) {
+    if (Objects.isNull(scrollType)) {
+      return null;
+    }
+    return switch (scrollType.replace("_", "").toLowerCase()) {
+      case "scrolltotop", "untiltop" -> "top";
+      case "scrolltobottom", "untilbottom" -> "bottom";
+      case "scrolltoleft", "untilleft" -> "left";
+      case "scrolltoright", "untilright" -> "right";
+      default -> null;
+    };
+  }
+
   private void executeHover(ActionsItem action) {
     if (hasSelector(action)) {
       driver.hover(action.getSelectorType(), action.getElementSelector());
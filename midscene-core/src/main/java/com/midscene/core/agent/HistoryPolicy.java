@@ -0,0 +1,121 @@
+package com.midscene.core.agent;
+
+import com.midscene.core.model.TokenEstimator;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Keeps the planning conversation small across cycles and retries. Only the latest page observation keeps its
+ * screenshot and page source; earlier observations are reduced to a placeholder. When the conversation still exceeds
+ * the token budget, the oldest turns are folded into a single text summary of previous plans and errors.
+ */
+@Log4j2
+public class HistoryPolicy {
+
+  public static final int DEFAULT_TOKEN_BUDGET = 60000;
+
+  static final String OMITTED_OBSERVATION = "[Earlier page observation: screenshot and page source omitted]";
+  static final String SUMMARY_HEADER = "Summary of earlier turns:";
+
+  private static final int SUMMARY_LINE_LENGTH = 300;
+
+  private final int tokenBudget;
+  private final TokenEstimator tokenEstimator;
+
+  public HistoryPolicy() {
+    this(DEFAULT_TOKEN_BUDGET);
+  }
+
+  public HistoryPolicy(int tokenBudget) {
+    this(tokenBudget, TokenEstimator.generic());
+  }
+
+  public HistoryPolicy(int tokenBudget, TokenEstimator tokenEstimator) {
+    this.tokenBudget = tokenBudget;
+    this.tokenEstimator = tokenEstimator;
+  }
+
+  /**
+   * Compacts the conversation in place so that it can be sent to the model.
+   *
+   * @param history the conversation, ending with the latest page observation
+   */
+  public void apply(List<ChatMessage> history) {
+    int latest = latestObservation(history);
+    for (int i = 0; i < latest; i++) {
+      if (history.get(i) instanceof UserMessage userMessage && hasImage(userMessage)) {
+        history.set(i, UserMessage.from(OMITTED_OBSERVATION));
+      }
+    }
+
+    int first = !history.isEmpty() && history.get(0) instanceof SystemMessage ? 1 : 0;
+    StringBuilder summary = new StringBuilder();
+    while (tokenEstimator.estimate(history) > tokenBudget && first < latest) {
+      ChatMessage oldest = history.remove(first);
+      latest--;
+      String line = summarize(oldest);
+      if (line != null) {
+        summary.append(summary.isEmpty() ? "" : "\n").append(line);
+      }
+    }
+    if (!summary.isEmpty()) {
+      history.add(first, UserMessage.from(SUMMARY_HEADER + "\n" + summary));
+      log.debug("Folded earlier turns into a summary to stay within {} tokens", tokenBudget);
+    }
+  }
+
+  public int getTokenBudget() {
+    return tokenBudget;
+  }
+
+  public TokenEstimator getTokenEstimator() {
+    return tokenEstimator;
+  }
+
+  private int latestObservation(List<ChatMessage> history) {
+    for (int i = history.size() - 1; i >= 0; i--) {
+      if (history.get(i) instanceof UserMessage userMessage && hasImage(userMessage)) {
+        return i;
+      }
+    }
+    return history.size();
+  }
+
+  private boolean hasImage(UserMessage message) {
+    return message.contents().stream().anyMatch(ImageContent.class::isInstance);
+  }
+
+  private String summarize(ChatMessage message) {
+    if (message instanceof AiMessage aiMessage && aiMessage.text() != null) {
+      return "- Plan: " + truncate(aiMessage.text());
+    }
+    if (message instanceof UserMessage userMessage) {
+      String text = textOf(userMessage);
+      if (text.startsWith(SUMMARY_HEADER)) {
+        return text.substring(SUMMARY_HEADER.length()).strip();
+      }
+      return text.equals(OMITTED_OBSERVATION) ? null : "- " + truncate(text);
+    }
+    return null;
+  }
+
+  private String truncate(String text) {
+    String singleLine = text.replaceAll("\\s+", " ").strip();
+    return singleLine.length() <= SUMMARY_LINE_LENGTH ? singleLine
+        : singleLine.substring(0, SUMMARY_LINE_LENGTH) + "...";
+  }
+
+  private String textOf(UserMessage message) {
+    return message.contents().stream()
+        .filter(TextContent.class::isInstance)
+        .map(content -> ((TextContent) content).text())
+        .collect(Collectors.joining("\n"));
+  }
+}
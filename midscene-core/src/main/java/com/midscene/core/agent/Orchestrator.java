@@ -3,26 +3,48 @@ package com.midscene.core.agent;
 import com.midscene.core.cache.TaskCache;
 import com.midscene.core.context.Context;
 import com.midscene.core.model.AIModel;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.model.ModelUnavailableException;
+import com.midscene.core.model.TokenEstimator;
 import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.service.PageDriver;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.UserMessage;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
 public class Orchestrator {
 
+  public static final int DEFAULT_REPLANNING_CYCLE_LIMIT = 10;
+  private static final int MAX_REMEMBERED_ANSWERS = 64;
+
   private final PageDriver driver;
   private final Planner planner;
   private final Executor executor;
+  private final PlanValidator planValidator;
   private final int maxRetries;
+  private int replanningCycleLimit = DEFAULT_REPLANNING_CYCLE_LIMIT;
   @Getter
   private final Context context;
+  private ScreenshotChangeDetector changeDetector;
+  private Consumer<ActionsItem> actionListener;
+  @Getter
+  private List<ActionsItem> lastTrajectory = List.of();
+  private final Map<String, RememberedAnswer> answers = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, RememberedAnswer> eldest) {
+      return size() > MAX_REMEMBERED_ANSWERS;
+    }
+  };
 
   public Orchestrator(PageDriver driver, AIModel aiModel) {
     this(driver, new Planner(aiModel, TaskCache.disabled()), new Executor(driver), 3);
@@ -51,6 +73,7 @@ public class Orchestrator {
     this.driver = driver;
     this.planner = planner;
     this.executor = executor;
+    this.planValidator = new PlanValidator(driver);
     this.maxRetries = maxRetries;
     this.context = new Context();
   }
@@ -62,20 +85,38 @@ public class Orchestrator {
    * @return The answer from the AI
    */
   public String query(String question) {
-    log.info("Querying: {}", question);
+    return query(question, ModelOperation.QUERY);
+  }
+
+  /**
+   * Queries the page for a specific kind of operation, allowing the model to be chosen per operation.
+   *
+   * @param question  The question to ask about the page
+   * @param operation The kind of query, e.g. {@link ModelOperation#ASSERT}
+   * @return The answer from the AI
+   */
+  public String query(String question, ModelOperation operation) {
+    log.info("Querying ({}): {}", operation, question);
     context.logInstruction("Query: " + question);
 
     String screenshotBase64 = driver.getScreenshotBase64();
     context.logScreenshotBefore(screenshotBase64);
 
-    String answer = planner.query(question, screenshotBase64);
+    int[] signature = signature(screenshotBase64);
+    String answer = reuseAnswer(operation, question, signature);
+    if (answer == null) {
+      answer = planner.query(question, screenshotBase64, operation);
+      rememberAnswer(operation, question, signature, answer);
+    }
     context.logAction("Answer: " + answer);
 
     return answer;
   }
 
   /**
-   * Executes a natural language instruction on the page.
+   * Executes a natural language instruction on the page. The model may return several actions per turn; they are run
+   * back to back and the page is only re-observed when the plan sets {@code moreActionsNeededByInstruction}. The
+   * number of such cycles is bounded by the replanning cycle limit.
    *
    * @param instruction The instruction to execute
    * @throws RuntimeException if the instruction fails to execute after retries
@@ -83,12 +124,16 @@ public class Orchestrator {
   public void execute(String instruction) {
     log.info("Executing instruction: {}", instruction);
     context.logInstruction(instruction);
+    lastTrajectory = List.of();
 
     List<ChatMessage> history = new ArrayList<>();
+    List<ActionsItem> trajectory = new ArrayList<>();
     boolean finished = false;
     boolean cacheInvalidated = false;
+    int failures = 0;
+    int cycles = 0;
 
-    for (int i = 0; i < maxRetries && !finished; i++) {
+    while (!finished && failures < maxRetries && cycles < replanningCycleLimit) {
       try {
         String screenshotBase64 = driver.getScreenshotBase64();
         context.logScreenshotBefore(screenshotBase64);
@@ -96,25 +141,53 @@ public class Orchestrator {
         String pageSource = driver.getPageSource();
 
         PlanningResponse plan = planner.plan(instruction, screenshotBase64, pageSource, history);
+        if (plan.isFromCache() && !cacheInvalidated) {
+          // A stale cached plan is cheaper to reject up front than to discover through a failed action
+          List<String> problems = planValidator.validate(plan);
+          if (!problems.isEmpty()) {
+            log.info("Cached plan does not match the page, replanning: {}", problems);
+            context.logError("Cached plan rejected: " + String.join("; ", problems));
+            planner.invalidateCache(instruction);
+            history.clear();
+            cacheInvalidated = true;
+            plan = planner.plan(instruction, screenshotBase64, pageSource, history);
+          }
+        }
         context.logPlan(plan.toString());
         context.logAction("Token usage: " + plan.getDescription());
+        if (plan.getEstimatedPromptTokens() != null) {
+          context.logTokenUsage(plan.getEstimatedPromptTokens(), plan.getPromptTokens(), plan.getCompletionTokens());
+        }
+        cycles++;
 
+        boolean moreActionsNeeded = Boolean.TRUE.equals(plan.getMoreActionsNeededByInstruction());
         if (Objects.nonNull(plan.getActions()) && !plan.getActions().isEmpty()) {
-          for (ActionsItem action : plan.getActions()) {
-            executor.execute(action);
-          }
+          executor.execute(plan.getActions(), actionListener);
+          trajectory.addAll(plan.getActions());
+          sleepAfterPlan(plan, trajectory);
+        } else if (trajectory.isEmpty() || moreActionsNeeded) {
+          throw new RuntimeException(Objects.nonNull(plan.getError()) ? plan.getError() : "No actions returned by AI.");
+        }
+
+        if (moreActionsNeeded) {
+          log.info("Plan requested more actions, re-observing page (cycle {}/{})", cycles, replanningCycleLimit);
+        } else {
           context.logScreenshotAfter(driver.getScreenshotBase64());
           finished = true;
-        } else {
-          throw new RuntimeException("No actions returned by AI.");
         }
 
+      } catch (ModelUnavailableException e) {
+        // Transport failures were already retried below the planner; another plan attempt would not help
+        log.error("Model unavailable, aborting instruction: {}", e.getMessage());
+        context.logError("Model unavailable: " + e.getMessage());
+        throw e;
       } catch (Exception e) {
-        log.error("Failed to execute plan (Attempt {}) {}", i + 1, e.getMessage());
-        context.logError("Attempt " + (i + 1) + " failed: " + e.getMessage());
-        
+        failures++;
+        log.error("Failed to execute plan (Attempt {}) {}", failures, e.getMessage());
+        context.logError("Attempt " + failures + " failed: " + e.getMessage());
+
         // On first failure, invalidate cache and clear history to force fresh AI call
-        if (!cacheInvalidated && i == 0) {
+        if (!cacheInvalidated && failures == 1) {
           boolean wasInvalidated = planner.invalidateCache(instruction);
           if (wasInvalidated) {
             log.info("Invalidated stale cache for instruction: {}", instruction);
@@ -122,15 +195,145 @@ public class Orchestrator {
             cacheInvalidated = true;
           }
         }
-        
+
         history.add(UserMessage.from("Error executing plan: " + e.getMessage()));
       }
     }
 
     if (!finished) {
-      log.error("Failed to complete instruction after {} attempts", maxRetries);
+      if (cycles >= replanningCycleLimit) {
+        log.error("Replanning cycle limit ({}) reached for instruction: {}", replanningCycleLimit, instruction);
+      } else {
+        log.error("Failed to complete instruction after {} attempts", maxRetries);
+      }
       context.logError("Failed to complete instruction: " + instruction);
       throw new RuntimeException("Failed to complete instruction: " + instruction);
     }
+
+    // A clean multi-cycle run is cached as one trajectory so replays need no model calls at all
+    if (failures == 0 && cycles > 1) {
+      planner.cacheTrajectory(instruction, trajectory);
+    }
+    // Failed attempts may have left partial effects on the page, so only a clean run is a replayable trajectory
+    if (failures == 0) {
+      lastTrajectory = List.copyOf(trajectory);
+    }
+  }
+
+  /**
+   * Sets the maximum number of plan-execute-observe cycles a single instruction may take.
+   *
+   * @param replanningCycleLimit the cycle limit, values below 1 are treated as 1
+   */
+  public void setReplanningCycleLimit(int replanningCycleLimit) {
+    this.replanningCycleLimit = Math.max(1, replanningCycleLimit);
+  }
+
+  /**
+   * Sets the token budget of the planning conversation; older turns are summarized to stay within it.
+   *
+   * @param tokenBudget the budget in estimated tokens
+   */
+  public void setHistoryTokenBudget(int tokenBudget) {
+    planner.setHistoryPolicy(new HistoryPolicy(tokenBudget, planner.getHistoryPolicy().getTokenEstimator()));
+  }
+
+  /**
+   * Sets the estimator used to check planning requests against the token budget before they are sent.
+   *
+   * @param tokenEstimator the estimator matching the model's tokenizer
+   */
+  public void setTokenEstimator(TokenEstimator tokenEstimator) {
+    planner.setHistoryPolicy(new HistoryPolicy(planner.getHistoryPolicy().getTokenBudget(), tokenEstimator));
+  }
+
+  /**
+   * Sets how many page elements relevant to the instruction are sent to the planner instead of the whole page source.
+   *
+   * @param domChunkLimit the number of elements, or 0 to send the whole page source
+   */
+  public void setDomChunkLimit(int domChunkLimit) {
+    planner.setDomChunkLimit(domChunkLimit);
+  }
+
+  /**
+   * Sets a callback invoked with every planned action right before it is executed, e.g. to record the page state
+   * the action depends on. Actions are not batched while a callback is set.
+   *
+   * @param actionListener the callback, or null to remove it
+   */
+  public void setActionListener(Consumer<ActionsItem> actionListener) {
+    this.actionListener = actionListener;
+  }
+
+  /**
+   * Enables reusing the previous answer to a repeated question while the visible page has not changed.
+   *
+   * @param changeDetector the detector comparing screenshots, or null to always ask the model
+   */
+  public void setChangeDetector(ScreenshotChangeDetector changeDetector) {
+    this.changeDetector = changeDetector;
+    synchronized (answers) {
+      answers.clear();
+    }
+  }
+
+  /**
+   * Sets background knowledge the planner includes in its system prompt for every instruction.
+   *
+   * @param actionContext the context, or null to clear it
+   */
+  public void setActionContext(String actionContext) {
+    planner.setActionContext(actionContext);
+  }
+
+  private int[] signature(String screenshotBase64) {
+    return changeDetector != null ? changeDetector.signature(screenshotBase64) : null;
+  }
+
+  private String reuseAnswer(ModelOperation operation, String question, int[] signature) {
+    if (signature == null) {
+      return null;
+    }
+    RememberedAnswer remembered;
+    synchronized (answers) {
+      remembered = answers.get(operation + ":" + question);
+    }
+    if (remembered == null || changeDetector.hasChanged(remembered.signature, signature)) {
+      return null;
+    }
+    log.info("Page unchanged since the last answer, reusing it for: {}", question);
+    return remembered.answer;
+  }
+
+  private void rememberAnswer(ModelOperation operation, String question, int[] signature, String answer) {
+    if (signature == null) {
+      return;
+    }
+    synchronized (answers) {
+      answers.put(operation + ":" + question, new RememberedAnswer(signature, answer));
+    }
+  }
+
+  private void sleepAfterPlan(PlanningResponse plan, List<ActionsItem> trajectory) {
+    if (Objects.isNull(plan.getSleep()) || plan.getSleep() <= 0) {
+      return;
+    }
+    ActionsItem sleep = new ActionsItem();
+    sleep.setType(AIActionType.SLEEP);
+    sleep.setSleepMs(plan.getSleep());
+    executor.execute(sleep);
+    trajectory.add(sleep);
+  }
+
+  private static final class RememberedAnswer {
+
+    private final int[] signature;
+    private final String answer;
+
+    private RememberedAnswer(int[] signature, String answer) {
+      this.signature = signature;
+      this.answer = answer;
+    }
   }
 }
@@ -0,0 +1,122 @@
+package com.midscene.core.agent;
+
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.pojo.type.AIActionType;
+import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.service.PageDriver;
+import com.midscene.core.utils.ObjectMapper;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Checks a plan against the current page before it is executed, in a single browser round trip: every element
+ * selector must resolve to exactly one visible element and every coordinate of a click or input must land on an
+ * interactive element. Actions after the first one that may change the page (a click, key press or navigation) are
+ * not checked since their targets may not exist yet.
+ */
+@Log4j2
+public class PlanValidator {
+
+  private static final Set<AIActionType> POINTER_ACTIONS = EnumSet.of(AIActionType.CLICK, AIActionType.TAP,
+      AIActionType.DOUBLE_CLICK, AIActionType.RIGHT_CLICK, AIActionType.LONG_PRESS, AIActionType.TYPE_TEXT,
+      AIActionType.INPUT, AIActionType.CLEAR_INPUT);
+  /**
+   * Actions after which the page may no longer match what the following actions were planned against.
+   */
+  public static final Set<AIActionType> PAGE_CHANGING_ACTIONS = EnumSet.of(AIActionType.CLICK, AIActionType.TAP,
+      AIActionType.DOUBLE_CLICK, AIActionType.RIGHT_CLICK, AIActionType.LONG_PRESS, AIActionType.KEYBOARD_PRESS,
+      AIActionType.NAVIGATE, AIActionType.RELOAD, AIActionType.GO_BACK, AIActionType.DRAG_AND_DROP,
+      AIActionType.SWIPE);
+
+  private static final String VALIDATE_SCRIPT = """
+      (checks => checks.map(check => {
+        const visible = el => el.getClientRects().length > 0 && getComputedStyle(el).visibility !== 'hidden';
+        if (check.point) {
+          const el = document.elementFromPoint(check.x, check.y);
+          if (!el) {
+            return 'point (' + check.x + ', ' + check.y + ') is outside the page';
+          }
+          const interactive = el.closest('a, button, input, select, textarea, label, summary, [role], [onclick],'
+            + ' [tabindex], [contenteditable=true]') || getComputedStyle(el).cursor === 'pointer';
+          return interactive ? null
+            : 'point (' + check.x + ', ' + check.y + ') lands on a non-interactive <' + el.tagName.toLowerCase() + '>';
+        }
+        let matches;
+        if (check.xpath) {
+          const result = document.evaluate(check.selector, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+          matches = Array.from({ length: result.snapshotLength }, (_, i) => result.snapshotItem(i));
+        } else {
+          matches = Array.from(document.querySelectorAll(check.selector));
+        }
+        const shown = matches.filter(visible);
+        return shown.length === 1 ? null
+          : check.selector + ' matches ' + shown.length + ' visible elements (' + matches.length + ' in total)';
+      }).filter(problem => problem))(%s)""";
+
+  private final PageDriver driver;
+
+  public PlanValidator(PageDriver driver) {
+    this.driver = driver;
+  }
+
+  /**
+   * Validates the plan against the current page.
+   *
+   * @param plan the plan about to be executed
+   * @return the problems found, empty if the plan can be executed or the page cannot be inspected
+   */
+  public List<String> validate(PlanningResponse plan) {
+    List<Map<String, Object>> checks = new ArrayList<>();
+    if (plan.getActions() != null) {
+      for (ActionsItem action : plan.getActions()) {
+        Map<String, Object> check = checkFor(action);
+        if (check != null) {
+          checks.add(check);
+        }
+        if (PAGE_CHANGING_ACTIONS.contains(action.getType())) {
+          break;
+        }
+      }
+    }
+    if (checks.isEmpty()) {
+      return List.of();
+    }
+
+    Object result;
+    try {
+      result = driver.evaluate(String.format(VALIDATE_SCRIPT, ObjectMapper.writeValueAsString(checks)));
+    } catch (Exception e) {
+      log.debug("Cannot validate plan, executing it unchecked: {}", e.getMessage());
+      return List.of();
+    }
+    List<String> problems = new ArrayList<>();
+    if (result instanceof List<?> list) {
+      for (Object problem : list) {
+        problems.add(String.valueOf(problem));
+      }
+    }
+    return problems;
+  }
+
+  private Map<String, Object> checkFor(ActionsItem action) {
+    Map<String, Object> check = new LinkedHashMap<>();
+    if (action.getElementSelector() != null && action.getSelectorType() != null) {
+      check.put("selector", action.getElementSelector());
+      check.put("xpath", action.getSelectorType() == BySelectorType.BY_XPATH);
+      return check;
+    }
+    if (action.getLocate() != null && POINTER_ACTIONS.contains(action.getType())) {
+      check.put("point", true);
+      check.put("x", action.getLocate().getX());
+      check.put("y", action.getLocate().getY());
+      return check;
+    }
+    return null;
+  }
+}
@@ -3,14 +3,23 @@ package com.midscene.core.agent;
 import com.midscene.core.agent.promt.PromptManager;
 import com.midscene.core.cache.TaskCache;
 import com.midscene.core.model.AIModel;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.model.TokenEstimator;
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.utils.DomChunkRanker;
+import com.midscene.core.utils.JsonRepair;
 import com.midscene.core.utils.ObjectMapper;
+import com.midscene.core.utils.PageSourceTrimmer;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.TextContent;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import lombok.extern.log4j.Log4j2;
@@ -18,8 +27,13 @@ import lombok.extern.log4j.Log4j2;
 @Log4j2
 public class Planner {
 
+  public static final int DEFAULT_DOM_CHUNK_LIMIT = 20;
+
   private final AIModel aiModel;
   private final TaskCache cache;
+  private HistoryPolicy historyPolicy = new HistoryPolicy();
+  private int domChunkLimit = DEFAULT_DOM_CHUNK_LIMIT;
+  private SystemMessage systemMessage = SystemMessage.from(PromptManager.constructPlanningSystemPrompt(null));
 
   public Planner(AIModel aiModel) {
     this(aiModel, TaskCache.disabled());
@@ -36,54 +50,125 @@ public class Planner {
     // Check cache for first attempts only (empty history means fresh attempt)
     if (history.isEmpty()) {
       PlanningResponse cached = cache.get(instruction);
-      if (cached != null) {
+      if (cached != null && !Boolean.TRUE.equals(cached.getMoreActionsNeededByInstruction())) {
         log.info("Cache hit for instruction: {}", instruction);
+        cached.setFromCache(true);
         return cached;
       }
     }
 
-    UserMessage message;
-    if (history.isEmpty()) {
-      String promptText = PromptManager.constructPlanningPrompt(instruction);
-      message = UserMessage.from(
-          TextContent.from(promptText),
-          ImageContent.from(screenshotBase64, "image/png"),
-          TextContent.from(pageSource));
+    boolean firstAttempt = history.isEmpty();
+    String promptText;
+    ModelOperation operation = ModelOperation.PLANNING;
+    if (firstAttempt) {
+      promptText = PromptManager.constructPlanningPrompt(instruction);
+    } else if (history.get(history.size() - 1) instanceof AiMessage) {
+      // The previous plan succeeded and asked to see the resulting page
+      promptText = PromptManager.constructContinuationPrompt(instruction);
     } else {
-      message = UserMessage.from(
-          TextContent.from(PromptManager.constructRetryPrompt(instruction)),
-          ImageContent.from(screenshotBase64, "image/png"),
-          TextContent.from(pageSource));
+      promptText = PromptManager.constructRetryPrompt(instruction);
+      operation = ModelOperation.REPLANNING;
+    }
+
+    // The static prompt always leads the conversation, also after the orchestrator cleared the history
+    if (history.isEmpty() || !(history.get(0) instanceof SystemMessage)) {
+      history.add(0, systemMessage);
     }
 
+    String relevantSource = selectRelevantSource(instruction, pageSource);
+    UserMessage message = observation(promptText, screenshotBase64, relevantSource);
+
     history.add(message);
+    historyPolicy.apply(history);
+    int estimatedTokens = fitToBudget(history, promptText, screenshotBase64, relevantSource);
 
     log.debug("Chat Plan message: {}", message);
 
-    ChatResponse chatResponse = aiModel.chat(history);
+    ChatResponse chatResponse = aiModel.chat(history, operation);
     String responseJson = chatResponse.aiMessage().text();
     log.debug("AI Plan Response: {}", responseJson);
-    history.add(AiMessage.from(responseJson));
 
+    PlanningResponse planningResponse;
+    String planJson = responseJson;
+    boolean repaired = false;
     try {
-      PlanningResponse planningResponse = ObjectMapper.mapResponseToClass(responseJson,
-          PlanningResponse.class);
-      planningResponse.setDescription(chatResponse.metadata().tokenUsage().toString());
-      
-      // Store in cache for first successful attempts
-      if (history.size() == 2) { // First attempt: 1 user message + 1 AI response
-        cache.put(instruction, planningResponse);
-        log.debug("Cached planning response for instruction: {}", instruction);
+      planningResponse = ObjectMapper.mapResponseToClass(responseJson, PlanningResponse.class);
+    } catch (Exception parseError) {
+      try {
+        planningResponse = repairPlan(responseJson, parseError);
+      } catch (Exception e) {
+        history.add(AiMessage.from(responseJson));
+        log.error("Failed to parse plan {}", e.getMessage());
+        throw new RuntimeException("Failed to parse plan", e);
       }
-      
-      return planningResponse;
-    } catch (Exception e) {
-      log.error("Failed to parse plan {}", e.getMessage());
-      throw new RuntimeException("Failed to parse plan", e);
+      repaired = true;
+      // Keep the conversation well-formed for the next cycle
+      planJson = ObjectMapper.writeValueAsString(planningResponse);
+    }
+    history.add(AiMessage.from(planJson));
+    TokenUsage tokenUsage = chatResponse.metadata().tokenUsage();
+    planningResponse.setDescription(String.valueOf(tokenUsage));
+    planningResponse.setEstimatedPromptTokens(estimatedTokens);
+    if (tokenUsage != null) {
+      planningResponse.setPromptTokens(tokenUsage.inputTokenCount());
+      planningResponse.setCompletionTokens(tokenUsage.outputTokenCount());
+    }
+
+    // Store in cache for first successful attempts that complete the instruction in one cycle
+    if (firstAttempt && !repaired
+        && !Boolean.TRUE.equals(planningResponse.getMoreActionsNeededByInstruction())) {
+      cache.put(instruction, planningResponse);
+      log.debug("Cached planning response for instruction: {}", instruction);
     }
+
+    return planningResponse;
+  }
+
+  /**
+   * Sets background knowledge appended to the planning system prompt, e.g. the YAML {@code aiActionContext}.
+   *
+   * @param actionContext the context, or null to clear it
+   */
+  public void setActionContext(String actionContext) {
+    this.systemMessage = SystemMessage.from(PromptManager.constructPlanningSystemPrompt(actionContext));
+  }
+
+  /**
+   * Sets the policy that bounds the conversation sent with every planning call.
+   *
+   * @param historyPolicy the history policy
+   */
+  public void setHistoryPolicy(HistoryPolicy historyPolicy) {
+    this.historyPolicy = historyPolicy;
+  }
+
+  public HistoryPolicy getHistoryPolicy() {
+    return historyPolicy;
+  }
+
+  /**
+   * Sets how many page elements, ranked by relevance to the instruction, are sent with the page source. The elements
+   * are sent as subtrees together with their ancestors.
+   *
+   * @param domChunkLimit the number of elements, or 0 to always send the whole page source
+   */
+  public void setDomChunkLimit(int domChunkLimit) {
+    this.domChunkLimit = Math.max(0, domChunkLimit);
   }
 
   public String query(String question, String screenshotBase64) {
+    return query(question, screenshotBase64, ModelOperation.QUERY);
+  }
+
+  /**
+   * Asks the model a question about the page.
+   *
+   * @param question         the question to answer
+   * @param screenshotBase64 the current screenshot
+   * @param operation        the kind of question, e.g. {@link ModelOperation#ASSERT} for condition checks
+   * @return the model's answer
+   */
+  public String query(String question, String screenshotBase64, ModelOperation operation) {
     String promptText = PromptManager.constructQueryPrompt(question);
     UserMessage message = UserMessage.from(
         TextContent.from(promptText),
@@ -91,12 +176,110 @@ public class Planner {
 
     log.debug("Chat Query message: {}", message);
 
-    ChatResponse chatResponse = aiModel.chat(Collections.singletonList(message));
+    ChatResponse chatResponse = aiModel.chat(Collections.singletonList(message), operation);
     String response = chatResponse.aiMessage().text();
     log.debug("AI Query Response: {}", response);
     return response;
   }
 
+  /**
+   * Caches the complete trajectory of a multi-cycle instruction as a single plan, so that a replay executes every
+   * action without consulting the model.
+   *
+   * @param instruction the instruction the trajectory belongs to
+   * @param actions     all actions executed across the planning cycles, in order
+   */
+  public void cacheTrajectory(String instruction, List<ActionsItem> actions) {
+    PlanningResponse trajectory = new PlanningResponse();
+    trajectory.setActions(new ArrayList<>(actions));
+    trajectory.setMoreActionsNeededByInstruction(false);
+    trajectory.setLog("Cached trajectory of " + actions.size() + " actions");
+    cache.put(instruction, trajectory);
+    log.debug("Cached {} action trajectory for instruction: {}", actions.size(), instruction);
+  }
+
+  /**
+   * Checks the estimated size of the request against the token budget and, if it does not fit, strips and then
+   * truncates the page source of the latest observation.
+   *
+   * @return the estimated input tokens of the request as it will be sent
+   */
+  private int fitToBudget(List<ChatMessage> history, String promptText, String screenshotBase64, String pageSource) {
+    TokenEstimator estimator = historyPolicy.getTokenEstimator();
+    int budget = historyPolicy.getTokenBudget();
+    int estimated = estimator.estimate(history);
+    if (estimated <= budget || pageSource == null) {
+      return estimated;
+    }
+
+    int pageTokens = estimator.estimateText(pageSource);
+    int otherTokens = estimated - pageTokens;
+    String fitted = PageSourceTrimmer.strip(pageSource);
+    int fittedTokens = estimator.estimateText(fitted);
+    if (otherTokens + fittedTokens > budget && fittedTokens > 0) {
+      int allowedTokens = Math.max(0, budget - otherTokens);
+      fitted = PageSourceTrimmer.truncate(fitted, (int) ((long) fitted.length() * allowedTokens / fittedTokens));
+      fittedTokens = estimator.estimateText(fitted);
+    }
+    log.info("Page source trimmed from ~{} to ~{} tokens to fit the budget of {} tokens", pageTokens, fittedTokens,
+        budget);
+
+    history.set(history.size() - 1, observation(promptText, screenshotBase64, fitted));
+    return otherTokens + fittedTokens;
+  }
+
+  private String selectRelevantSource(String instruction, String pageSource) {
+    if (domChunkLimit == 0 || pageSource == null) {
+      return pageSource;
+    }
+    String relevant = DomChunkRanker.select(pageSource, instruction, domChunkLimit);
+    if (relevant.length() < pageSource.length()) {
+      log.debug("Sending {} of {} page source characters relevant to: {}", relevant.length(), pageSource.length(),
+          instruction);
+    }
+    return relevant;
+  }
+
+  private UserMessage observation(String promptText, String screenshotBase64, String pageSource) {
+    return UserMessage.from(
+        TextContent.from(promptText),
+        ImageContent.from(screenshotBase64, "image/png"),
+        TextContent.from(pageSource));
+  }
+
+  /**
+   * Repairs a planning response that failed to parse. The JSON is first fixed locally and then, if still unreadable,
+   * sent back to the model as text only, which is much cheaper than planning again with the screenshot and page source.
+   * If the response was cut off inside the action list, its last action may be incomplete: it is dropped and the plan
+   * asks for another observation, so the model continues from the resulting page.
+   *
+   * @param responseJson the malformed model response
+   * @param parseError   the original parse error
+   * @return the parsed plan
+   */
+  private PlanningResponse repairPlan(String responseJson, Exception parseError) {
+    log.warn("Malformed plan, attempting local repair: {}", parseError.getMessage());
+    PlanningResponse plan;
+    try {
+      plan = ObjectMapper.mapResponseToClass(JsonRepair.repair(responseJson), PlanningResponse.class);
+    } catch (Exception e) {
+      log.warn("Local repair failed, asking the model to correct the plan: {}", e.getMessage());
+      String prompt = PromptManager.constructPlanRepairPrompt(responseJson, e.getMessage());
+      String corrected = aiModel.chat(Collections.singletonList(UserMessage.from(prompt)), ModelOperation.REPAIR)
+          .aiMessage().text();
+      plan = ObjectMapper.mapResponseToClass(JsonRepair.repair(corrected), PlanningResponse.class);
+    }
+    if (JsonRepair.openArrays(responseJson).contains("actions")) {
+      List<ActionsItem> actions = plan.getActions() != null ? new ArrayList<>(plan.getActions()) : new ArrayList<>();
+      if (!actions.isEmpty()) {
+        log.warn("Plan was cut off, dropping its last action: {}", actions.remove(actions.size() - 1).getType());
+      }
+      plan.setActions(actions);
+      plan.setMoreActionsNeededByInstruction(true);
+    }
+    return plan;
+  }
+
   /**
    * Invalidates (removes) a cached plan for the given instruction.
    * Call this when execution of a cached plan fails.
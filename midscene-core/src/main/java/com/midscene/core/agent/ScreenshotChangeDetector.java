@@ -0,0 +1,122 @@
+package com.midscene.core.agent;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decides whether the visible page changed between two screenshots. Each screenshot is split into a grid of cells and
+ * every cell is reduced to a hash of its pixels' luminance, quantized in coarse steps. A cell counts as changed when any
+ * of its pixels moved to another step, so a single changed digit is noticed while slight rendering noise is not.
+ * Averaging a cell would miss text changes, which move ink around without changing how much of it there is.
+ */
+@Log4j2
+@Getter
+public class ScreenshotChangeDetector {
+
+  public static final double DEFAULT_THRESHOLD = 0.0;
+
+  static final int GRID_SIZE = 64;
+  static final int LUMINANCE_STEP = 16;
+
+  /**
+   * The fraction of grid cells that must change for the page to count as changed.
+   */
+  private final double threshold;
+
+  /**
+   * The part of the screenshot to compare, in screenshot pixels, or null for the whole screenshot.
+   */
+  private final Rectangle regionOfInterest;
+
+  public ScreenshotChangeDetector() {
+    this(DEFAULT_THRESHOLD, null);
+  }
+
+  public ScreenshotChangeDetector(double threshold) {
+    this(threshold, null);
+  }
+
+  public ScreenshotChangeDetector(double threshold, Rectangle regionOfInterest) {
+    if (threshold < 0 || threshold >= 1) {
+      throw new IllegalArgumentException("Change threshold must be in [0, 1)");
+    }
+    this.threshold = threshold;
+    this.regionOfInterest = regionOfInterest;
+  }
+
+  /**
+   * Reduces a screenshot to the grid of cell hashes that is compared between frames.
+   *
+   * @param screenshotBase64 the screenshot as Base64 encoded PNG
+   * @return the signature, or null if the screenshot cannot be decoded
+   */
+  public int[] signature(String screenshotBase64) {
+    BufferedImage image;
+    try {
+      image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(screenshotBase64)));
+    } catch (IOException | IllegalArgumentException e) {
+      log.debug("Cannot decode screenshot: {}", e.getMessage());
+      return null;
+    }
+    if (image == null) {
+      return null;
+    }
+
+    Rectangle area = new Rectangle(0, 0, image.getWidth(), image.getHeight());
+    if (regionOfInterest != null) {
+      area = area.intersection(regionOfInterest);
+      if (area.isEmpty()) {
+        return null;
+      }
+    }
+
+    int[] pixels = image.getRGB(area.x, area.y, area.width, area.height, null, 0, area.width);
+    int[] signature = new int[GRID_SIZE * GRID_SIZE];
+    for (int y = 0; y < area.height; y++) {
+      int row = (int) ((long) y * GRID_SIZE / area.height) * GRID_SIZE;
+      for (int x = 0; x < area.width; x++) {
+        int cell = row + (int) ((long) x * GRID_SIZE / area.width);
+        int rgb = pixels[y * area.width + x];
+        int luminance = (299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+        // An odd multiplier keeps every single-pixel change visible in the hash
+        signature[cell] = signature[cell] * 31 + luminance / LUMINANCE_STEP + 1;
+      }
+    }
+    return signature;
+  }
+
+  /**
+   * Computes the fraction of grid cells that differ between two signatures.
+   *
+   * @param previous the signature of the earlier screenshot
+   * @param current  the signature of the later screenshot
+   * @return the changed fraction in [0, 1], 1 if either signature is missing
+   */
+  public double difference(int[] previous, int[] current) {
+    if (previous == null || current == null || previous.length != current.length) {
+      return 1.0;
+    }
+    int changed = 0;
+    for (int i = 0; i < previous.length; i++) {
+      if (previous[i] != current[i]) {
+        changed++;
+      }
+    }
+    return (double) changed / previous.length;
+  }
+
+  /**
+   * @param previous the signature of the earlier screenshot
+   * @param current  the signature of the later screenshot
+   * @return true if the visible page changed by more than the threshold
+   */
+  public boolean hasChanged(int[] previous, int[] current) {
+    return difference(previous, current) > threshold;
+  }
+}
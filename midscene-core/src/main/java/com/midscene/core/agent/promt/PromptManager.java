@@ -6,12 +6,36 @@ package com.midscene.core.agent.promt;
  */
 public class PromptManager {
 
-  private static final String PLANNING_PROMPT = """
+  private static final String PLANNING_OUTPUT_FORMAT = """
+      ```json
+      {
+        "log": "Brief description of what you're about to do",
+        "moreActionsNeededByInstruction": true|false,
+        "actions": [
+          {
+            "type": "ACTION_TYPE",
+            "locate": {"x": 100, "y": 200},
+            "elementSelector": "//xpath/or/css",
+            "selectorType": "BY_XPATH",
+            "text": "optional text for TYPE_TEXT",
+            "keyName": "optional key for KEYBOARD_PRESS",
+            "direction": "optional for SCROLL",
+            "scrollType": "optional for SCROLL",
+            "url": "optional for NAVIGATE"
+          }
+        ],
+        "sleep": 0,
+        "error": null
+      }
+      ```""";
+  private static final String PLANNING_SYSTEM_PROMPT_TEMPLATE = """
       ## Role
       You are an expert AI agent controlling a web browser. You analyze screenshots and page source to plan and execute actions.
       
       ## Objective
-      Plan the NEXT SINGLE ACTION to accomplish the user's instruction. Consider the current page state shown in the screenshot.
+      Plan the next actions to accomplish the user's instruction. Consider the current page state shown in the screenshot.
+      Return every action that can be executed back to back without looking at the page again (e.g. filling several
+      fields of a visible form). Stop when the next step depends on how the page reacts, and request a new observation.
       
       ## Skills
       - Image analysis and element recognition
@@ -24,45 +48,36 @@ public class PromptManager {
       ## Workflow
       1. Analyze the current screenshot and page state
       2. Determine if the instruction has been completed
-      3. If not complete, plan the single next action
+      3. If not complete, plan the actions that can be performed on the current page state
       4. Return structured JSON response
       
       ## Selector Guidelines
-      - Prefer XPATH or CSS selectors when elements are identifiable
+      - The page source may be an excerpt: parts unrelated to the instruction are left out, so element positions in it
+        do not match the real page
+      - Prefer XPATH or CSS selectors built from attributes or text that identify the element on the whole page
+        (id, name, aria-label, placeholder, visible text)
+      - Never use positional selectors such as `(//button)[2]`, `//div[3]/a` or `:nth-child()`
       - Use coordinates (x, y) as fallback when selectors are not reliable
       - selectorType must be `BY_XPATH` or `BY_CSS`
       
       ## Output Format
       Return a JSON object with the following structure:
       
-      ```json
-      {
-        "log": "Brief description of what you're about to do",
-        "moreActionsNeededByInstruction": true|false,
-        "actions": [
-          {
-            "type": "ACTION_TYPE",
-            "locate": {"x": 100, "y": 200},
-            "elementSelector": "//xpath/or/css",
-            "selectorType": "BY_XPATH",
-            "text": "optional text for TYPE_TEXT",
-            "keyName": "optional key for KEYBOARD_PRESS",
-            "direction": "optional for SCROLL",
-            "url": "optional for NAVIGATE"
-          }
-        ],
-        "sleep": 0,
-        "error": null
-      }
-      ```
+      %s
       
       ### Field Descriptions
       - **log**: A brief preamble explaining what you're about to do (use same language as instruction)
-      - **moreActionsNeededByInstruction**: true if more actions needed after this one, false if instruction will be complete
-      - **actions**: Array of action objects (usually just one). Empty if task is already complete.
+      - **moreActionsNeededByInstruction**: true if the page must be observed again after these actions to plan further, false if instruction will be complete
+      - **actions**: Array of action objects, executed in order without re-observing the page. Empty if task is already complete.
       - **sleep**: Optional milliseconds to wait after action (default 0)
       - **error**: Set this if you cannot proceed (explain why)
       
+      OUTPUT JSON ONLY. NO EXPLANATIONS OR MARKDOWN OUTSIDE THE JSON.
+      """;
+  // Formatted once so that every planning call starts with byte-identical text, which provider prompt caches rely on
+  private static final String PLANNING_SYSTEM_PROMPT = String.format(PLANNING_SYSTEM_PROMPT_TEMPLATE,
+      getActionSpaceDescription(), PLANNING_OUTPUT_FORMAT);
+  private static final String PLANNING_PROMPT = """
       ## User Instruction
       
       %s
@@ -118,13 +133,29 @@ public class PromptManager {
       """;
 
   /**
-   * Constructs a planning prompt with dynamic action space description.
+   * Constructs the static planning system prompt: role, action space, workflow and output format. It does not depend
+   * on the instruction and stays identical across calls, so it can be served from the provider's prompt cache.
+   *
+   * @param actionContext optional background knowledge shared by all instructions, e.g. the YAML
+   *                      {@code aiActionContext}; may be null
+   * @return the system prompt
+   */
+  public static String constructPlanningSystemPrompt(String actionContext) {
+    if (actionContext == null || actionContext.isBlank()) {
+      return PLANNING_SYSTEM_PROMPT;
+    }
+    return PLANNING_SYSTEM_PROMPT + "\n## Background Context\n\n" + actionContext.strip() + "\n";
+  }
+
+  /**
+   * Constructs the instruction-specific part of a planning prompt. It follows the system prompt from
+   * {@link #constructPlanningSystemPrompt(String)}.
    *
    * @param instruction the user instruction to execute
    * @return the formatted planning prompt
    */
   public static String constructPlanningPrompt(String instruction) {
-    return String.format(PLANNING_PROMPT, getActionSpaceDescription(), instruction);
+    return String.format(PLANNING_PROMPT, instruction);
   }
 
   /**
@@ -143,6 +174,42 @@ public class PromptManager {
         Use the same output format as before.""", instruction);
   }
 
+  /**
+   * Constructs a continuation prompt after a plan requested another observation of the page.
+   *
+   * @param instruction the original user instruction
+   * @return the formatted continuation prompt
+   */
+  public static String constructContinuationPrompt(String instruction) {
+    return String.format("""
+        The previous actions were executed. Analyze the new screenshot and page source.
+        Plan the remaining actions, or return an empty actions array if the instruction is already complete.
+        
+        User instruction: %s
+        
+        Use the same output format as before.""", instruction);
+  }
+
+  /**
+   * Constructs a text-only prompt asking the model to correct a planning response that could not be parsed.
+   *
+   * @param malformedResponse the response that failed to parse
+   * @param error             the parse error
+   * @return the formatted repair prompt
+   */
+  public static String constructPlanRepairPrompt(String malformedResponse, String error) {
+    return String.format("""
+        The following response should be a JSON object but could not be parsed: %s
+        
+        Return the corrected JSON with the following structure, keeping the original content:
+        %s
+        
+        Response to correct:
+        %s
+        
+        OUTPUT JSON ONLY.""", error, PLANNING_OUTPUT_FORMAT, malformedResponse);
+  }
+
   /**
    * Constructs a query prompt for answering questions about the page.
    *
@@ -204,7 +271,9 @@ public class PromptManager {
     sb.append("### Scroll Actions\n");
     sb.append("- **SCROLL_DOWN**: Scroll down. Params: locate{x,y}\n");
     sb.append("- **SCROLL_UP**: Scroll up. Params: locate{x,y}\n");
-    sb.append("- **SCROLL**: Scroll in a direction. Params: locate{x,y}, direction(up|down|left|right), distance\n\n");
+    sb.append("- **SCROLL**: Scroll the page, or the container at locate{x,y}. Params: locate{x,y} (optional),"
+        + " direction(up|down|left|right), distance in pixels, or"
+        + " scrollType(scrollToTop|scrollToBottom|scrollToLeft|scrollToRight) to reach an edge in one action\n\n");
 
     sb.append("### Gesture Actions\n");
     sb.append("- **SWIPE**: Swipe gesture. Params: from{x,y}, to{x,y}, durationMs\n");
@@ -126,10 +126,11 @@ public class TaskCache {
     }
 
     String key = generateCacheKey(prompt);
-    memoryCache.put(key, response);
+    PlanningResponse previous = memoryCache.put(key, response);
     log.debug("Cached response for prompt key: {}", key.substring(0, 8));
 
-    if (cacheFilePath != null) {
+    // Coalesced requests fan the same response out to several planners; persist it only once
+    if (cacheFilePath != null && !response.equals(previous)) {
       appendToFile(key, response);
     }
   }
@@ -1,5 +1,18 @@
 package com.midscene.core.config;
 
+import com.midscene.core.model.GenerationProfile;
+import com.midscene.core.model.HedgingPolicy;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.model.RateLimitPolicy;
+import com.midscene.core.model.RecordReplayAIModel;
+import com.midscene.core.model.ResiliencePolicy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 public class MidsceneConfig {
 
   private final ModelProvider provider;
@@ -8,6 +21,22 @@ public class MidsceneConfig {
   private final String baseUrl;
   private final long timeoutMs;
   private final int maxRetries;
+  private final int replanningCycleLimit;
+  private final int historyTokenBudget;
+  private final int domChunkLimit;
+  private final Double screenshotChangeThreshold;
+  private final boolean domAssertions;
+  private final boolean coalesceRequests;
+  private final Path recordingDirectory;
+  private final RecordReplayAIModel.Mode recordingMode;
+  private final Map<ModelOperation, MidsceneConfig> routes;
+  private final MidsceneConfig hedgeConfig;
+  private final HedgingPolicy hedgingPolicy;
+  private final RateLimitPolicy rateLimitPolicy;
+  private final List<ModelEndpoint> endpoints;
+  private final long endpointCooldownMs;
+  private final ResiliencePolicy resiliencePolicy;
+  private final Map<ModelOperation, GenerationProfile> generationProfiles;
 
   private MidsceneConfig(Builder builder) {
     this.provider = builder.provider;
@@ -16,6 +45,22 @@ public class MidsceneConfig {
     this.baseUrl = builder.baseUrl;
     this.timeoutMs = builder.timeoutMs;
     this.maxRetries = builder.maxRetries;
+    this.replanningCycleLimit = builder.replanningCycleLimit;
+    this.historyTokenBudget = builder.historyTokenBudget;
+    this.domChunkLimit = builder.domChunkLimit;
+    this.screenshotChangeThreshold = builder.screenshotChangeThreshold;
+    this.domAssertions = builder.domAssertions;
+    this.coalesceRequests = builder.coalesceRequests;
+    this.recordingDirectory = builder.recordingDirectory;
+    this.recordingMode = builder.recordingMode;
+    this.routes = Collections.unmodifiableMap(new EnumMap<>(builder.routes));
+    this.hedgeConfig = builder.hedgeConfig;
+    this.hedgingPolicy = builder.hedgingPolicy;
+    this.rateLimitPolicy = builder.rateLimitPolicy;
+    this.endpoints = List.copyOf(builder.endpoints);
+    this.endpointCooldownMs = builder.endpointCooldownMs;
+    this.resiliencePolicy = builder.resiliencePolicy;
+    this.generationProfiles = Collections.unmodifiableMap(new EnumMap<>(builder.generationProfiles));
   }
 
   public static Builder builder() {
@@ -46,6 +91,111 @@ public class MidsceneConfig {
     return maxRetries;
   }
 
+  public int getReplanningCycleLimit() {
+    return replanningCycleLimit;
+  }
+
+  public int getHistoryTokenBudget() {
+    return historyTokenBudget;
+  }
+
+  /**
+   * @return how many page elements relevant to the instruction are sent for planning, 0 sends the whole page source
+   */
+  public int getDomChunkLimit() {
+    return domChunkLimit;
+  }
+
+  /**
+   * @return the fraction of the screenshot that must change before a repeated question is asked again, or null to
+   * always ask the model
+   */
+  public Double getScreenshotChangeThreshold() {
+    return screenshotChangeThreshold;
+  }
+
+  /**
+   * @return whether simple assertions and waits are checked in the page before asking the model
+   */
+  public boolean isDomAssertions() {
+    return domAssertions;
+  }
+
+  public boolean isCoalesceRequests() {
+    return coalesceRequests;
+  }
+
+  public Path getRecordingDirectory() {
+    return recordingDirectory;
+  }
+
+  public RecordReplayAIModel.Mode getRecordingMode() {
+    return recordingMode;
+  }
+
+  /**
+   * Gets the models dedicated to specific operations. Operations without a route use this configuration's model.
+   *
+   * @return the routes per operation
+   */
+  public Map<ModelOperation, MidsceneConfig> getRoutes() {
+    return routes;
+  }
+
+  /**
+   * Gets the backup model that slow requests are hedged to, or {@code null} when hedging is disabled.
+   *
+   * @return the backup model configuration
+   */
+  public MidsceneConfig getHedgeConfig() {
+    return hedgeConfig;
+  }
+
+  public HedgingPolicy getHedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  /**
+   * Gets the limits shared by all agents using the same provider, or {@code null} when calls are not rate limited.
+   *
+   * @return the rate limit policy
+   */
+  public RateLimitPolicy getRateLimitPolicy() {
+    return rateLimitPolicy;
+  }
+
+  /**
+   * Gets the additional endpoints requests are balanced over, next to this configuration's own key and base URL.
+   *
+   * @return the additional endpoints
+   */
+  public List<ModelEndpoint> getEndpoints() {
+    return endpoints;
+  }
+
+  public long getEndpointCooldownMs() {
+    return endpointCooldownMs;
+  }
+
+  /**
+   * Gets the transport retry and circuit breaker settings, or {@code null} when model errors are not retried.
+   *
+   * @return the resilience policy
+   */
+  public ResiliencePolicy getResiliencePolicy() {
+    return resiliencePolicy;
+  }
+
+  /**
+   * Gets the generation settings per operation. Short answers (booleans, numbers, assertions) are only bounded when
+   * enabled with {@link Builder#boundShortAnswers(boolean)}.
+   *
+   * @return the generation profiles
+   */
+  public Map<ModelOperation, GenerationProfile> getGenerationProfiles() {
+    return generationProfiles;
+  }
+
   public static class Builder {
 
     private ModelProvider provider = ModelProvider.OPENAI;
@@ -54,6 +204,23 @@ public class MidsceneConfig {
     private String baseUrl;
     private long timeoutMs = 30000; // Default 30s
     private int maxRetries = 3;
+    private int replanningCycleLimit = 10;
+    private int historyTokenBudget = 60000;
+    private int domChunkLimit = 20;
+    private Double screenshotChangeThreshold;
+    private boolean domAssertions = true;
+    private boolean coalesceRequests;
+    private Path recordingDirectory;
+    private RecordReplayAIModel.Mode recordingMode = RecordReplayAIModel.Mode.PASSTHROUGH;
+    private final Map<ModelOperation, MidsceneConfig> routes = new EnumMap<>(ModelOperation.class);
+    private MidsceneConfig hedgeConfig;
+    private HedgingPolicy hedgingPolicy = HedgingPolicy.builder().build();
+    private RateLimitPolicy rateLimitPolicy;
+    private final List<ModelEndpoint> endpoints = new ArrayList<>();
+    private long endpointCooldownMs = 30000;
+    private ResiliencePolicy resiliencePolicy;
+    private final Map<ModelOperation, GenerationProfile> generationProfiles = new EnumMap<>(ModelOperation.class);
+    private boolean boundShortAnswers;
 
     public Builder provider(ModelProvider provider) {
       this.provider = provider;
@@ -85,17 +252,135 @@ public class MidsceneConfig {
       return this;
     }
 
+    public Builder replanningCycleLimit(int replanningCycleLimit) {
+      this.replanningCycleLimit = replanningCycleLimit;
+      return this;
+    }
+
+    public Builder historyTokenBudget(int historyTokenBudget) {
+      this.historyTokenBudget = historyTokenBudget;
+      return this;
+    }
+
+    public Builder domChunkLimit(int domChunkLimit) {
+      this.domChunkLimit = domChunkLimit;
+      return this;
+    }
+
+    public Builder screenshotChangeThreshold(Double screenshotChangeThreshold) {
+      this.screenshotChangeThreshold = screenshotChangeThreshold;
+      return this;
+    }
+
+    public Builder domAssertions(boolean domAssertions) {
+      this.domAssertions = domAssertions;
+      return this;
+    }
+
+    public Builder coalesceRequests(boolean coalesceRequests) {
+      this.coalesceRequests = coalesceRequests;
+      return this;
+    }
+
+    public Builder recordReplay(Path recordingDirectory, RecordReplayAIModel.Mode recordingMode) {
+      this.recordingDirectory = recordingDirectory;
+      this.recordingMode = recordingMode;
+      return this;
+    }
+
+    public Builder route(ModelOperation operation, MidsceneConfig routeConfig) {
+      this.routes.put(operation, routeConfig);
+      return this;
+    }
+
+    public Builder hedge(MidsceneConfig hedgeConfig) {
+      this.hedgeConfig = hedgeConfig;
+      return this;
+    }
+
+    public Builder hedge(MidsceneConfig hedgeConfig, HedgingPolicy hedgingPolicy) {
+      this.hedgeConfig = hedgeConfig;
+      this.hedgingPolicy = hedgingPolicy;
+      return this;
+    }
+
+    public Builder rateLimit(RateLimitPolicy rateLimitPolicy) {
+      this.rateLimitPolicy = rateLimitPolicy;
+      return this;
+    }
+
+    public Builder endpoint(String apiKey, String baseUrl) {
+      this.endpoints.add(new ModelEndpoint(apiKey, baseUrl));
+      return this;
+    }
+
+    public Builder endpointCooldownMs(long endpointCooldownMs) {
+      this.endpointCooldownMs = endpointCooldownMs;
+      return this;
+    }
+
+    public Builder resilience(ResiliencePolicy resiliencePolicy) {
+      this.resiliencePolicy = resiliencePolicy;
+      return this;
+    }
+
+    public Builder generationProfile(ModelOperation operation, GenerationProfile generationProfile) {
+      this.generationProfiles.put(operation, generationProfile);
+      return this;
+    }
+
+    /**
+     * Bounds boolean, number and assertion answers to a few tokens at temperature 0, unless a profile is set for them.
+     * Leave disabled for reasoning models, which spend output tokens on thinking before they answer.
+     *
+     * @param boundShortAnswers whether to bound short answers
+     * @return this builder
+     */
+    public Builder boundShortAnswers(boolean boundShortAnswers) {
+      this.boundShortAnswers = boundShortAnswers;
+      return this;
+    }
+
     public MidsceneConfig build() {
       if (apiKey == null || apiKey.isEmpty()) {
         throw new IllegalArgumentException("API Key must be provided");
       }
+      if (replanningCycleLimit < 1) {
+        throw new IllegalArgumentException("Replanning cycle limit must be positive");
+      }
+      if (historyTokenBudget < 1) {
+        throw new IllegalArgumentException("History token budget must be positive");
+      }
+      if (domChunkLimit < 0) {
+        throw new IllegalArgumentException("DOM chunk limit must not be negative");
+      }
+      if (screenshotChangeThreshold != null && (screenshotChangeThreshold < 0 || screenshotChangeThreshold >= 1)) {
+        throw new IllegalArgumentException("Screenshot change threshold must be in [0, 1)");
+      }
+      if (recordingDirectory == null && recordingMode != RecordReplayAIModel.Mode.PASSTHROUGH) {
+        throw new IllegalArgumentException("Recording directory must be provided for " + recordingMode);
+      }
+      if (hedgingPolicy.getPercentile() <= 0 || hedgingPolicy.getPercentile() > 1) {
+        throw new IllegalArgumentException("Hedging percentile must be in (0, 1]");
+      }
       if (modelName == null || modelName.isEmpty()) {
         modelName = provider.getModelName();
       }
       if (baseUrl == null || baseUrl.isEmpty()) {
         baseUrl = provider.getBaseUrl();
       }
+      if (boundShortAnswers) {
+        shortAnswerProfiles().forEach(generationProfiles::putIfAbsent);
+      }
       return new MidsceneConfig(this);
     }
+
+    private static Map<ModelOperation, GenerationProfile> shortAnswerProfiles() {
+      Map<ModelOperation, GenerationProfile> profiles = new EnumMap<>(ModelOperation.class);
+      profiles.put(ModelOperation.BOOLEAN, GenerationProfile.builder().maxOutputTokens(10).temperature(0.0).build());
+      profiles.put(ModelOperation.NUMBER, GenerationProfile.builder().maxOutputTokens(20).temperature(0.0).build());
+      profiles.put(ModelOperation.ASSERT, GenerationProfile.builder().maxOutputTokens(10).temperature(0.0).build());
+      return profiles;
+    }
   }
 }
@@ -0,0 +1,16 @@
+package com.midscene.core.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One API key and base URL serving the configured model. A {@code null} field falls back to the value of the owning
+ * {@link MidsceneConfig}.
+ */
+@Data
+@AllArgsConstructor
+public class ModelEndpoint {
+
+  private String apiKey;
+  private String baseUrl;
+}
@@ -67,4 +67,27 @@ public class Context {
         .timestamp(System.currentTimeMillis())
         .build());
   }
+
+  public void logTokenUsage(Integer estimatedPromptTokens, Integer promptTokens, Integer completionTokens) {
+    logEvent(ContextEvent.builder()
+        .type("TOKEN_USAGE")
+        .description("Estimated vs actual tokens")
+        .estimatedPromptTokens(estimatedPromptTokens)
+        .promptTokens(promptTokens)
+        .completionTokens(completionTokens)
+        .tokensUsed(promptTokens != null && completionTokens != null ? promptTokens + completionTokens : null)
+        .timestamp(System.currentTimeMillis())
+        .build());
+  }
+
+  public void logAssertion(String assertion, boolean result, String path) {
+    logEvent(ContextEvent.builder()
+        .type("ASSERTION")
+        .subType(path)
+        .description("Condition checked via " + path)
+        .data(assertion)
+        .output(result)
+        .timestamp(System.currentTimeMillis())
+        .build());
+  }
 }
@@ -82,6 +82,11 @@ public class ContextEvent {
    */
   private Integer completionTokens;
 
+  /**
+   * Locally estimated input tokens (for AI calls), to compare with {@link #promptTokens}.
+   */
+  private Integer estimatedPromptTokens;
+
   /**
    * Raw AI response.
    */
@@ -7,4 +7,16 @@ import java.util.List;
 public interface AIModel {
 
   ChatResponse chat(List<ChatMessage> messages);
+
+  /**
+   * Sends messages for a specific kind of operation. Plain models ignore the operation; decorators may use it to route
+   * or tune the call.
+   *
+   * @param messages  the messages to send
+   * @param operation the operation being performed, or null if unspecified
+   * @return the model response
+   */
+  default ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    return chat(messages);
+  }
 }
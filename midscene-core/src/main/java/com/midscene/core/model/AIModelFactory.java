@@ -0,0 +1,119 @@
+package com.midscene.core.model;
+
+import com.midscene.core.config.MidsceneConfig;
+import com.midscene.core.config.ModelEndpoint;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Builds the {@link AIModel} described by a {@link MidsceneConfig}, including the decorators enabled in it.
+ */
+@UtilityClass
+public class AIModelFactory {
+
+  private final AtomicInteger CLIENT_COUNTER = new AtomicInteger();
+
+  /**
+   * Creates the model for the given configuration.
+   *
+   * @param config the configuration
+   * @return the configured model
+   */
+  public AIModel create(MidsceneConfig config) {
+    String clientId = "agent-" + CLIENT_COUNTER.incrementAndGet();
+    ResiliencePolicy resiliencePolicy = config.getResiliencePolicy();
+    AIModel model = createRouteModel(config, resiliencePolicy, clientId);
+
+    if (config.getHedgeConfig() != null) {
+      model = new HedgingAIModel(model, createRouteModel(config.getHedgeConfig(), resiliencePolicy, clientId),
+          config.getHedgingPolicy());
+    }
+
+    if (!config.getRoutes().isEmpty()) {
+      Map<ModelOperation, AIModel> routes = new EnumMap<>(ModelOperation.class);
+      config.getRoutes().forEach((operation, routeConfig) ->
+          routes.put(operation, createRouteModel(routeConfig, resiliencePolicy, clientId)));
+      model = new RoutingAIModel(model, routes);
+    }
+
+    if (config.getRecordingMode() != RecordReplayAIModel.Mode.PASSTHROUGH) {
+      model = new RecordReplayAIModel(model, config.getRecordingDirectory(), config.getRecordingMode());
+    }
+    if (config.isCoalesceRequests()) {
+      model = new CoalescingAIModel(model, scopeOf(config));
+    }
+    return model;
+  }
+
+  /**
+   * Creates the plain provider model without any decorators.
+   *
+   * @param config the configuration
+   * @return the provider model
+   */
+  public AIModel createProviderModel(MidsceneConfig config) {
+    return createProviderModel(config, config.getApiKey(), config.getBaseUrl());
+  }
+
+  private AIModel createProviderModel(MidsceneConfig config, String apiKey, String baseUrl) {
+    ChatModelAIModel model = switch (config.getProvider()) {
+      case OPENAI -> new OpenAIModel(apiKey, config.getModelName(), baseUrl);
+      // The Gemini client always talks to Google's endpoint, so only the key varies
+      case GEMINI -> new GeminiModel(apiKey, config.getModelName());
+      case ANTHROPIC -> new AnthropicModel(apiKey, config.getModelName(), baseUrl);
+      case MISTRAL -> new MistralModel(apiKey, config.getModelName(), baseUrl);
+      case AZURE_OPEN_AI -> new AzureOpenAiModel(apiKey, baseUrl);
+      case OLLAMA -> new OllamaModel(baseUrl, config.getModelName());
+      case QWEN, THOUSAND_QUESTIONS -> new QwenModel(apiKey, config.getModelName(), baseUrl);
+    };
+    model.setGenerationProfiles(config.getGenerationProfiles());
+    return model;
+  }
+
+  private AIModel createRouteModel(MidsceneConfig config, ResiliencePolicy policy, String clientId) {
+    AIModel model = createLimitedModel(config, clientId);
+    if (policy == null) {
+      return model;
+    }
+    // Each route gets its own breaker, so an outage of one provider does not block the others
+    return new ResilientAIModel(model, policy, CircuitBreaker.forScope(scopeOf(config), policy));
+  }
+
+  private AIModel createLimitedModel(MidsceneConfig config, String clientId) {
+    if (config.getEndpoints().isEmpty()) {
+      return createEndpointModel(config, config.getApiKey(), config.getBaseUrl(), clientId);
+    }
+    List<AIModel> models = new ArrayList<>();
+    models.add(createEndpointModel(config, config.getApiKey(), config.getBaseUrl(), clientId));
+    for (ModelEndpoint endpoint : config.getEndpoints()) {
+      String apiKey = endpoint.getApiKey() != null ? endpoint.getApiKey() : config.getApiKey();
+      String baseUrl = endpoint.getBaseUrl() != null ? endpoint.getBaseUrl() : config.getBaseUrl();
+      models.add(createEndpointModel(config, apiKey, baseUrl, clientId));
+    }
+    return new BalancingAIModel(models, config.getEndpointCooldownMs());
+  }
+
+  private AIModel createEndpointModel(MidsceneConfig config, String apiKey, String baseUrl, String clientId) {
+    AIModel model = createProviderModel(config, apiKey, baseUrl);
+    if (config.getRateLimitPolicy() == null) {
+      return model;
+    }
+    ProviderRateLimiter limiter = ProviderRateLimiter.forScope(scopeOf(config, apiKey, baseUrl),
+        config.getRateLimitPolicy());
+    return new RateLimitedAIModel(model, limiter, clientId, TokenEstimator.forProvider(config.getProvider()));
+  }
+
+  private String scopeOf(MidsceneConfig config, String apiKey, String baseUrl) {
+    // Provider quotas are per key, but the key itself must not end up in logs or maps
+    String keyId = apiKey != null ? Integer.toHexString(apiKey.hashCode()) : "";
+    return config.getProvider() + "|" + config.getModelName() + "|" + baseUrl + "|" + keyId;
+  }
+
+  private String scopeOf(MidsceneConfig config) {
+    return config.getProvider() + "|" + config.getModelName() + "|" + config.getBaseUrl();
+  }
+}
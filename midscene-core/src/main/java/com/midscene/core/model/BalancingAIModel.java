@@ -0,0 +1,131 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decorator that spreads requests over several endpoints (API keys or base URLs) serving the same logical model. The
+ * endpoint with the fewest outstanding requests is chosen, ties going to the lowest observed latency. An endpoint that
+ * fails with a transient transport error is ejected for a cool-down period; a rate-limited request is retried right
+ * away on another endpoint because the provider did no work for it. Other errors, such as invalid requests, say
+ * nothing about the endpoint and are passed through without penalty.
+ */
+@Log4j2
+public class BalancingAIModel implements AIModel {
+
+  private static final double LATENCY_SMOOTHING = 0.3;
+
+  private final List<Endpoint> endpoints = new ArrayList<>();
+  private final long cooldownMs;
+
+  public BalancingAIModel(List<AIModel> models, long cooldownMs) {
+    if (models.isEmpty()) {
+      throw new IllegalArgumentException("At least one endpoint must be provided");
+    }
+    for (int i = 0; i < models.size(); i++) {
+      endpoints.add(new Endpoint(i, models.get(i)));
+    }
+    this.cooldownMs = cooldownMs;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    Set<Endpoint> rateLimited = new HashSet<>();
+    while (true) {
+      Endpoint endpoint = select(rateLimited);
+      long start = System.currentTimeMillis();
+      try {
+        ChatResponse response = endpoint.model.chat(messages, operation);
+        complete(endpoint, System.currentTimeMillis() - start);
+        return response;
+      } catch (RuntimeException e) {
+        if (!ResilientAIModel.isTransient(e)) {
+          release(endpoint);
+          throw e;
+        }
+        boolean rateLimit = RateLimitedAIModel.isRateLimit(e);
+        fail(endpoint, e);
+        if (!rateLimit || rateLimited.size() + 1 >= endpoints.size()) {
+          throw e;
+        }
+        rateLimited.add(endpoint);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of endpoints currently serving requests.
+   *
+   * @return the number of endpoints not in cool-down
+   */
+  public synchronized int getHealthyEndpointCount() {
+    long now = System.currentTimeMillis();
+    return (int) endpoints.stream().filter(endpoint -> endpoint.ejectedUntil <= now).count();
+  }
+
+  private synchronized Endpoint select(Set<Endpoint> excluded) {
+    long now = System.currentTimeMillis();
+    Endpoint best = null;
+    for (Endpoint endpoint : endpoints) {
+      if (excluded.contains(endpoint) || endpoint.ejectedUntil > now) {
+        continue;
+      }
+      if (best == null || endpoint.outstanding < best.outstanding
+          || endpoint.outstanding == best.outstanding && endpoint.latencyMs < best.latencyMs) {
+        best = endpoint;
+      }
+    }
+    if (best == null) {
+      // Every endpoint is cooling down; use the one that recovers first rather than failing outright
+      for (Endpoint endpoint : endpoints) {
+        if (!excluded.contains(endpoint) && (best == null || endpoint.ejectedUntil < best.ejectedUntil)) {
+          best = endpoint;
+        }
+      }
+    }
+    best.outstanding++;
+    return best;
+  }
+
+  private synchronized void complete(Endpoint endpoint, long latencyMs) {
+    endpoint.outstanding--;
+    endpoint.ejectedUntil = 0;
+    endpoint.latencyMs = endpoint.latencyMs == 0
+        ? latencyMs
+        : LATENCY_SMOOTHING * latencyMs + (1 - LATENCY_SMOOTHING) * endpoint.latencyMs;
+  }
+
+  private synchronized void release(Endpoint endpoint) {
+    endpoint.outstanding--;
+  }
+
+  private synchronized void fail(Endpoint endpoint, RuntimeException error) {
+    endpoint.outstanding--;
+    endpoint.ejectedUntil = System.currentTimeMillis() + cooldownMs;
+    log.warn("Ejecting model endpoint #{} for {} ms: {}", endpoint.index, cooldownMs, error.getMessage());
+  }
+
+  private static class Endpoint {
+
+    private final int index;
+    private final AIModel model;
+    private int outstanding;
+    private double latencyMs;
+    private long ejectedUntil;
+
+    private Endpoint(int index, AIModel model) {
+      this.index = index;
+      this.model = model;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.exception.UnsupportedFeatureException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ResponseFormat;
+import dev.langchain4j.model.chat.request.ResponseFormatType;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Base class of the provider models backed by a langchain4j {@link ChatModel}. Calls for an operation with a
+ * {@link GenerationProfile} are sent with that profile's generation settings, and operations answered in JSON are
+ * constrained to valid JSON, or to the schema from {@link ResponseSchemas}, as far as the provider supports it.
+ */
+@Log4j2
+public abstract class ChatModelAIModel implements AIModel {
+
+  /**
+   * How far a provider can constrain its output to JSON.
+   */
+  public enum StructuredOutput {
+    NONE,
+    JSON_OBJECT,
+    JSON_SCHEMA
+  }
+
+  protected final ChatModel model;
+  private final Map<ModelOperation, GenerationProfile> generationProfiles = new EnumMap<>(ModelOperation.class);
+  private volatile boolean structuredOutputRejected;
+
+  protected ChatModelAIModel(ChatModel model) {
+    this.model = model;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    ChatRequest.Builder request = ChatRequest.builder().messages(messages);
+    GenerationProfile profile = operation != null ? generationProfiles.get(operation) : null;
+    if (profile != null) {
+      profile.applyTo(request);
+    }
+
+    ResponseFormat responseFormat = structuredOutputRejected ? null : responseFormatFor(operation);
+    if (responseFormat == null) {
+      return model.chat(request.build());
+    }
+    try {
+      return model.chat(request.responseFormat(responseFormat).build());
+    } catch (UnsupportedFeatureException e) {
+      // Some deployments of otherwise capable providers reject response formats; parse leniently from now on
+      log.warn("Structured output not supported, falling back to free-form responses: {}", e.getMessage());
+      structuredOutputRejected = true;
+      return model.chat(request.responseFormat(null).build());
+    }
+  }
+
+  /**
+   * Sets the generation settings used per operation, replacing the previous ones.
+   *
+   * @param generationProfiles the profiles per operation
+   */
+  public void setGenerationProfiles(Map<ModelOperation, GenerationProfile> generationProfiles) {
+    this.generationProfiles.clear();
+    this.generationProfiles.putAll(generationProfiles);
+  }
+
+  /**
+   * Declares how far the provider can constrain its output. Providers without support get free-form responses, which
+   * are parsed leniently.
+   *
+   * @return the supported level of structured output
+   */
+  protected StructuredOutput structuredOutput() {
+    return StructuredOutput.NONE;
+  }
+
+  private ResponseFormat responseFormatFor(ModelOperation operation) {
+    if (operation == null || !operation.expectsJson()) {
+      return null;
+    }
+    return switch (structuredOutput()) {
+      case NONE -> null;
+      case JSON_OBJECT -> ResponseFormat.JSON;
+      case JSON_SCHEMA -> {
+        JsonSchema schema = ResponseSchemas.forOperation(operation);
+        yield schema != null
+            ? ResponseFormat.builder().type(ResponseFormatType.JSON).jsonSchema(schema).build()
+            : ResponseFormat.JSON;
+      }
+    };
+  }
+}
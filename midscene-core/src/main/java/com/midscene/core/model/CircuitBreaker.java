@@ -0,0 +1,88 @@
+package com.midscene.core.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Circuit breaker shared by every model talking to the same provider scope. After a number of consecutive transient
+ * failures it opens and rejects calls; once the open duration has passed a single trial call is let through, which
+ * closes the circuit on success or opens it again on failure.
+ */
+@Log4j2
+public class CircuitBreaker {
+
+  private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openDurationMs;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+
+  CircuitBreaker(int failureThreshold, long openDurationMs) {
+    this.failureThreshold = failureThreshold;
+    this.openDurationMs = openDurationMs;
+  }
+
+  /**
+   * Returns the breaker shared by all models of the given scope, creating it with the given policy on first use.
+   *
+   * @param scope  the provider scope
+   * @param policy the policy used if the breaker does not exist yet
+   * @return the shared breaker
+   */
+  public static CircuitBreaker forScope(String scope, ResiliencePolicy policy) {
+    CircuitBreaker breaker = BREAKERS.computeIfAbsent(scope,
+        key -> new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenDurationMs()));
+    if (breaker.failureThreshold != policy.getFailureThreshold()
+        || breaker.openDurationMs != policy.getOpenDurationMs()) {
+      log.warn("Circuit breaker for {} already exists with a different policy, keeping the existing one:"
+          + " failureThreshold={}, openDurationMs={}", scope, breaker.failureThreshold, breaker.openDurationMs);
+    }
+    return breaker;
+  }
+
+  /**
+   * Checks whether a call may be made. Moves an expired open circuit to half-open and admits one trial call.
+   *
+   * @return true if the call may proceed
+   */
+  public synchronized boolean allowRequest() {
+    if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+      state = State.HALF_OPEN;
+      return true;
+    }
+    return state == State.CLOSED;
+  }
+
+  public synchronized void onSuccess() {
+    if (state != State.CLOSED) {
+      log.info("Model provider recovered, closing circuit");
+    }
+    state = State.CLOSED;
+    consecutiveFailures = 0;
+  }
+
+  public synchronized void onFailure() {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+      if (state != State.OPEN) {
+        log.warn("Opening circuit after {} consecutive model failures", consecutiveFailures);
+      }
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+}
@@ -0,0 +1,91 @@
+package com.midscene.core.model;
+
+import com.midscene.core.utils.MessageFingerprint;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decorator that coalesces identical concurrent requests into a single model call. Requests are keyed by the model
+ * scope and the {@link MessageFingerprint} of the complete message list, which covers the instruction as well as the
+ * screenshot and page source snapshot.
+ *
+ * <p>The in-flight registry is shared by all instances in the JVM, so agents created from the same configuration
+ * share one paid call when a parallel suite starts with identical steps. Every waiter receives the same response; the
+ * {@link com.midscene.core.agent.Planner} of each waiter then writes it to its {@link
+ * com.midscene.core.cache.TaskCache} as usual.</p>
+ */
+@Log4j2
+public class CoalescingAIModel implements AIModel {
+
+  private static final Map<String, CompletableFuture<ChatResponse>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+  private final AIModel delegate;
+  private final String scope;
+
+  /**
+   * Creates a coalescing decorator.
+   *
+   * @param delegate the model that performs the actual calls
+   * @param scope    identifies the underlying model; only requests with the same scope are coalesced
+   */
+  public CoalescingAIModel(AIModel delegate, String scope) {
+    this.delegate = delegate;
+    this.scope = scope;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    String key = scope + ":" + operation + ":" + MessageFingerprint.of(messages);
+    CompletableFuture<ChatResponse> call = new CompletableFuture<>();
+    CompletableFuture<ChatResponse> inFlight = IN_FLIGHT.putIfAbsent(key, call);
+    if (inFlight != null) {
+      log.debug("Joining in-flight model request {}", key);
+      return await(inFlight);
+    }
+
+    try {
+      ChatResponse response = delegate.chat(messages, operation);
+      call.complete(response);
+      return response;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      IN_FLIGHT.remove(key, call);
+    }
+  }
+
+  /**
+   * Returns the number of distinct requests currently in flight across all instances.
+   *
+   * @return the in-flight request count
+   */
+  public static int inFlightCount() {
+    return IN_FLIGHT.size();
+  }
+
+  private ChatResponse await(CompletableFuture<ChatResponse> inFlight) {
+    try {
+      return inFlight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+}
@@ -1,26 +1,20 @@
 package com.midscene.core.model;
 
-import dev.langchain4j.data.message.ChatMessage;
-import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
-import java.util.List;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
-public class GeminiModel implements AIModel {
-
-  private final ChatModel model;
+public class GeminiModel extends ChatModelAIModel {
 
   public GeminiModel(String apiKey, String modelName) {
-    this.model = GoogleAiGeminiChatModel.builder()
+    super(GoogleAiGeminiChatModel.builder()
         .apiKey(apiKey)
         .modelName(modelName)
-        .build();
+        .build());
   }
 
   @Override
-  public ChatResponse chat(List<ChatMessage> messages) {
-    return model.chat(messages);
+  protected StructuredOutput structuredOutput() {
+    return StructuredOutput.JSON_SCHEMA;
   }
 }
@@ -0,0 +1,48 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.model.chat.request.ChatRequest;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Generation settings for one {@link ModelOperation}. Unset values fall back to the provider defaults. Bounding the
+ * output length of short answers, such as booleans, directly bounds their latency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GenerationProfile {
+
+  /**
+   * Maximum number of tokens the model may generate.
+   */
+  private Integer maxOutputTokens;
+
+  /**
+   * Sampling temperature.
+   */
+  private Double temperature;
+
+  /**
+   * Sequences that end generation when produced.
+   */
+  private List<String> stopSequences;
+
+  /**
+   * Applies these settings to a chat request.
+   *
+   * @param request the request builder
+   * @return the same builder
+   */
+  public ChatRequest.Builder applyTo(ChatRequest.Builder request) {
+    request.maxOutputTokens(maxOutputTokens).temperature(temperature);
+    if (stopSequences != null && !stopSequences.isEmpty()) {
+      request.stopSequences(stopSequences);
+    }
+    return request;
+  }
+}
@@ -0,0 +1,184 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decorator that hedges slow calls. A request goes to the primary model first; if no response arrives within the
+ * adaptive hedge delay (see {@link HedgingPolicy}), the same request is sent to the backup model, e.g. another region,
+ * key or provider. Whichever answers first wins and the other call is cancelled. A primary that fails before the hedge
+ * delay falls back to the backup model right away.
+ */
+@Log4j2
+public class HedgingAIModel implements AIModel {
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+  private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "midscene-hedge-" + THREAD_COUNTER.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final AIModel primary;
+  private final AIModel backup;
+  private final HedgingPolicy policy;
+
+  private final long[] latencies;
+  private int latencyCount;
+  private int latencyIndex;
+
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong hedged = new AtomicLong();
+  private final AtomicLong primaryWins = new AtomicLong();
+  private final AtomicLong backupWins = new AtomicLong();
+  private final AtomicLong fallbacks = new AtomicLong();
+
+  public HedgingAIModel(AIModel primary, AIModel backup) {
+    this(primary, backup, HedgingPolicy.builder().build());
+  }
+
+  public HedgingAIModel(AIModel primary, AIModel backup, HedgingPolicy policy) {
+    this.primary = primary;
+    this.backup = backup;
+    this.policy = policy;
+    this.latencies = new long[Math.max(1, policy.getWindowSize())];
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    requests.incrementAndGet();
+    long delayMs = currentDelayMs();
+    long start = System.nanoTime();
+
+    CompletableFuture<ChatResponse> primaryResult = new CompletableFuture<>();
+    Future<?> primaryCall = EXECUTOR.submit(() -> call(primary, messages, operation, primaryResult));
+    try {
+      ChatResponse response = primaryResult.get(delayMs, TimeUnit.MILLISECONDS);
+      recordLatency(elapsedMs(start));
+      return response;
+    } catch (TimeoutException e) {
+      log.debug("Primary model exceeded hedge delay of {} ms, sending backup request", delayMs);
+    } catch (ExecutionException e) {
+      log.info("Primary model failed ({}), falling back to backup model", e.getCause().getMessage());
+      fallbacks.incrementAndGet();
+      return backup.chat(messages, operation);
+    } catch (InterruptedException e) {
+      primaryCall.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for model response", e);
+    }
+
+    hedged.incrementAndGet();
+    CompletableFuture<ChatResponse> backupResult = new CompletableFuture<>();
+    Future<?> backupCall = EXECUTOR.submit(() -> call(backup, messages, operation, backupResult));
+
+    CompletableFuture<ChatResponse> winner = new CompletableFuture<>();
+    primaryResult.whenComplete((response, error) -> {
+      if (error == null) {
+        if (winner.complete(response)) {
+          primaryWins.incrementAndGet();
+        }
+      } else if (backupResult.isCompletedExceptionally()) {
+        winner.completeExceptionally(error);
+      }
+    });
+    backupResult.whenComplete((response, error) -> {
+      if (error == null) {
+        if (winner.complete(response)) {
+          backupWins.incrementAndGet();
+        }
+      } else if (primaryResult.isCompletedExceptionally()) {
+        winner.completeExceptionally(error);
+      }
+    });
+
+    try {
+      ChatResponse response = winner.get();
+      // When the backup wins, the primary latency is at least the elapsed time; recording it keeps the percentile honest
+      recordLatency(elapsedMs(start));
+      return response;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for model response", e);
+    } finally {
+      primaryCall.cancel(true);
+      backupCall.cancel(true);
+    }
+  }
+
+  /**
+   * Returns a snapshot of the hedging counters.
+   *
+   * @return the current statistics
+   */
+  public HedgingStats getStats() {
+    return HedgingStats.builder()
+        .requests(requests.get())
+        .hedged(hedged.get())
+        .primaryWins(primaryWins.get())
+        .backupWins(backupWins.get())
+        .fallbacks(fallbacks.get())
+        .currentDelayMs(currentDelayMs())
+        .build();
+  }
+
+  /**
+   * Computes the current hedge delay from the observed primary latencies.
+   *
+   * @return the hedge delay in milliseconds
+   */
+  public synchronized long currentDelayMs() {
+    if (latencyCount < policy.getMinSamples()) {
+      return clamp(policy.getInitialDelayMs());
+    }
+    long[] window = Arrays.copyOf(latencies, latencyCount);
+    Arrays.sort(window);
+    int index = (int) Math.ceil(policy.getPercentile() * window.length) - 1;
+    return clamp(window[Math.max(0, Math.min(index, window.length - 1))]);
+  }
+
+  private void call(AIModel model, List<ChatMessage> messages, ModelOperation operation,
+      CompletableFuture<ChatResponse> result) {
+    try {
+      result.complete(model.chat(messages, operation));
+    } catch (Throwable e) {
+      result.completeExceptionally(e);
+    }
+  }
+
+  private synchronized void recordLatency(long latencyMs) {
+    latencies[latencyIndex] = latencyMs;
+    latencyIndex = (latencyIndex + 1) % latencies.length;
+    latencyCount = Math.min(latencyCount + 1, latencies.length);
+  }
+
+  private long clamp(long delayMs) {
+    return Math.max(policy.getMinDelayMs(), Math.min(policy.getMaxDelayMs(), delayMs));
+  }
+
+  private long elapsedMs(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+}
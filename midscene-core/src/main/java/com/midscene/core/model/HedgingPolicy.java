@@ -0,0 +1,54 @@
+package com.midscene.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Controls when {@link HedgingAIModel} sends a backup request. The hedge delay follows the given percentile of recent
+ * primary latencies, clamped to {@code [minDelayMs, maxDelayMs]}; lower percentiles hedge more often, trading cost for
+ * tail latency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HedgingPolicy {
+
+  /**
+   * Percentile of observed primary latencies after which a backup request is sent (0 < percentile <= 1).
+   */
+  @Builder.Default
+  private double percentile = 0.95;
+
+  /**
+   * Lower bound of the hedge delay in milliseconds.
+   */
+  @Builder.Default
+  private long minDelayMs = 1000;
+
+  /**
+   * Upper bound of the hedge delay in milliseconds.
+   */
+  @Builder.Default
+  private long maxDelayMs = 30000;
+
+  /**
+   * Hedge delay used until enough latencies have been observed.
+   */
+  @Builder.Default
+  private long initialDelayMs = 10000;
+
+  /**
+   * Number of observed latencies required before the percentile is used.
+   */
+  @Builder.Default
+  private int minSamples = 10;
+
+  /**
+   * Number of most recent primary latencies the percentile is computed over.
+   */
+  @Builder.Default
+  private int windowSize = 100;
+}
@@ -0,0 +1,51 @@
+package com.midscene.core.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Snapshot of {@link HedgingAIModel} counters.
+ */
+@Data
+@Builder
+public class HedgingStats {
+
+  /**
+   * Total number of requests.
+   */
+  private final long requests;
+
+  /**
+   * Requests for which a backup request was sent because the primary exceeded the hedge delay.
+   */
+  private final long hedged;
+
+  /**
+   * Hedged requests answered first by the primary model.
+   */
+  private final long primaryWins;
+
+  /**
+   * Hedged requests answered first by the backup model.
+   */
+  private final long backupWins;
+
+  /**
+   * Requests sent to the backup model because the primary failed before the hedge delay.
+   */
+  private final long fallbacks;
+
+  /**
+   * Hedge delay currently in effect, in milliseconds.
+   */
+  private final long currentDelayMs;
+
+  /**
+   * Fraction of requests that were hedged, i.e. the extra cost paid for tail latency.
+   *
+   * @return the hedge rate between 0 and 1
+   */
+  public double getHedgeRate() {
+    return requests == 0 ? 0 : (double) hedged / requests;
+  }
+}
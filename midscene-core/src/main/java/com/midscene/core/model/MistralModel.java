@@ -1,27 +1,21 @@
 package com.midscene.core.model;
 
-import dev.langchain4j.data.message.ChatMessage;
-import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.mistralai.MistralAiChatModel;
-import java.util.List;
 import lombok.extern.log4j.Log4j2;
 
 @Log4j2
-public class MistralModel implements AIModel {
-
-  private final ChatModel model;
+public class MistralModel extends ChatModelAIModel {
 
   public MistralModel(String apiKey, String modelName, String baseUrl) {
-    this.model = MistralAiChatModel.builder()
+    super(MistralAiChatModel.builder()
         .baseUrl(baseUrl)
         .apiKey(apiKey)
         .modelName(modelName)
-        .build();
+        .build());
   }
 
   @Override
-  public ChatResponse chat(List<ChatMessage> messages) {
-    return model.chat(messages);
+  protected StructuredOutput structuredOutput() {
+    return StructuredOutput.JSON_OBJECT;
   }
 }
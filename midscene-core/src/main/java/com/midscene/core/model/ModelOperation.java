@@ -0,0 +1,57 @@
+package com.midscene.core.model;
+
+/**
+ * Kind of work a model call performs. Decorators such as {@link RoutingAIModel} use it to pick a model per call.
+ */
+public enum ModelOperation {
+  /**
+   * Planning actions for an instruction.
+   */
+  PLANNING,
+  /**
+   * Planning again after a previous plan failed to parse or to execute.
+   */
+  REPLANNING,
+  /**
+   * Locating an element on the page.
+   */
+  LOCATE,
+  /**
+   * Answering a question about the page.
+   */
+  QUERY,
+  /**
+   * Answering a yes/no question about the page.
+   */
+  BOOLEAN,
+  /**
+   * Answering a question about the page with a number.
+   */
+  NUMBER,
+  /**
+   * Verifying an assertion or wait condition.
+   */
+  ASSERT,
+  /**
+   * Extracting data from the page.
+   */
+  EXTRACT,
+  /**
+   * Describing an element on the page.
+   */
+  DESCRIBE,
+  /**
+   * Correcting a malformed JSON response; text only, so a small model is usually enough.
+   */
+  REPAIR;
+
+  /**
+   * Whether the model is expected to answer with a JSON object for this operation.
+   *
+   * @return true for operations whose response is parsed as JSON
+   */
+  public boolean expectsJson() {
+    return this == PLANNING || this == REPLANNING || this == LOCATE || this == EXTRACT || this == DESCRIBE
+        || this == REPAIR;
+  }
+}
@@ -0,0 +1,16 @@
+package com.midscene.core.model;
+
+/**
+ * Thrown when a model cannot be reached: transient transport errors persisted through all retries, or the circuit
+ * breaker is open because the provider is considered down. Callers should fail fast instead of re-planning.
+ */
+public class ModelUnavailableException extends RuntimeException {
+
+  public ModelUnavailableException(String message) {
+    super(message);
+  }
+
+  public ModelUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -1,24 +1,26 @@
 package com.midscene.core.model;
 
-import dev.langchain4j.data.message.ChatMessage;
-import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.openai.OpenAiChatModel;
-import java.util.List;
 
-public class OpenAIModel implements AIModel {
-
-  private final ChatModel model;
+public class OpenAIModel extends ChatModelAIModel {
 
   public OpenAIModel(String apiKey, String modelName) {
-    this.model = OpenAiChatModel.builder()
+    super(OpenAiChatModel.builder()
+        .apiKey(apiKey)
+        .modelName(modelName)
+        .build());
+  }
+
+  public OpenAIModel(String apiKey, String modelName, String baseUrl) {
+    super(OpenAiChatModel.builder()
+        .baseUrl(baseUrl)
         .apiKey(apiKey)
         .modelName(modelName)
-        .build();
+        .build());
   }
 
   @Override
-  public ChatResponse chat(List<ChatMessage> messages) {
-    return model.chat(messages);
+  protected StructuredOutput structuredOutput() {
+    return StructuredOutput.JSON_SCHEMA;
   }
 }
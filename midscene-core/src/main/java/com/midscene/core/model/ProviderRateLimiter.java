@@ -0,0 +1,248 @@
+package com.midscene.core.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Limiter shared by every model talking to the same provider scope. It combines requests-per-minute and
+ * tokens-per-minute token buckets with an AIMD concurrency limit: the limit grows additively while latency stays close
+ * to the recent fastest one for the same operation and shrinks multiplicatively on rate limit responses or latency
+ * spikes. Waiting requests are served round-robin per client, so one busy agent cannot starve the others.
+ */
+@Log4j2
+public class ProviderRateLimiter {
+
+  private static final Map<String, ProviderRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+  private static final double LATENCY_DECREASE_RATIO = 0.9;
+  private static final double BASELINE_DRIFT = 0.05;
+
+  private final RateLimitPolicy policy;
+  private final ReentrantLock lock = new ReentrantLock(true);
+  private final Condition changed = lock.newCondition();
+
+  private final Map<String, Deque<Object>> waiting = new HashMap<>();
+  private final Deque<String> rotation = new ArrayDeque<>();
+
+  private double concurrencyLimit;
+  private int inFlight;
+  private final Map<ModelOperation, Double> latencyBaselines = new HashMap<>();
+
+  private double requestTokens;
+  private double tokenTokens;
+  private long lastRefillNanos = System.nanoTime();
+
+  ProviderRateLimiter(RateLimitPolicy policy) {
+    this.policy = policy;
+    this.concurrencyLimit = Math.max(policy.getMinConcurrency(), policy.getInitialConcurrency());
+    this.requestTokens = policy.getRequestsPerMinute();
+    this.tokenTokens = policy.getTokensPerMinute();
+  }
+
+  /**
+   * Returns the limiter shared by all models of the given scope, creating it with the given policy on first use.
+   *
+   * @param scope  the provider scope, e.g. provider, model and endpoint
+   * @param policy the policy used if the limiter does not exist yet
+   * @return the shared limiter
+   */
+  public static ProviderRateLimiter forScope(String scope, RateLimitPolicy policy) {
+    ProviderRateLimiter limiter = LIMITERS.computeIfAbsent(scope, key -> new ProviderRateLimiter(policy));
+    if (!limiter.policy.equals(policy)) {
+      log.warn("Rate limiter for {} already exists with a different policy, keeping the existing one: {}",
+          scope, limiter.policy);
+    }
+    return limiter;
+  }
+
+  /**
+   * Waits until the request may be sent and reserves its share of the limits.
+   *
+   * @param clientId        the caller, used for fair queuing
+   * @param estimatedTokens estimated tokens the request will consume
+   * @throws IllegalStateException if no permit was granted within the maximum wait time
+   */
+  public void acquire(String clientId, int estimatedTokens) {
+    Object ticket = new Object();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(policy.getMaxWaitMs());
+    lock.lock();
+    try {
+      waiting.computeIfAbsent(clientId, key -> {
+        rotation.addLast(key);
+        return new ArrayDeque<>();
+      }).addLast(ticket);
+      while (true) {
+        refill();
+        long waitNanos = isNext(clientId, ticket) ? nanosUntilAvailable(estimatedTokens) : Long.MAX_VALUE;
+        if (waitNanos == 0) {
+          grant(clientId, estimatedTokens);
+          return;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          remove(clientId, ticket);
+          throw new IllegalStateException("Timed out waiting for model rate limit permit");
+        }
+        changed.awaitNanos(Math.min(waitNanos, remaining));
+      }
+    } catch (InterruptedException e) {
+      remove(clientId, ticket);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for model rate limit permit", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a permit after a successful call and adapts the concurrency limit to its latency.
+   *
+   * @param latencyMs       the call latency
+   * @param estimatedTokens the tokens reserved on acquire
+   * @param actualTokens    the tokens reported by the provider, or {@code null} if unknown
+   */
+  public void onSuccess(long latencyMs, int estimatedTokens, Integer actualTokens) {
+    onSuccess(null, latencyMs, estimatedTokens, actualTokens);
+  }
+
+  /**
+   * Releases a permit after a successful call and adapts the concurrency limit to its latency. Latency is compared
+   * with a baseline kept per operation, since a planning call is naturally much slower than a yes/no question. The
+   * baseline follows the fastest recent calls and drifts up slowly, so a lasting change in provider speed is
+   * absorbed instead of shrinking the limit forever.
+   *
+   * @param operation       the kind of call, or {@code null} if unknown
+   * @param latencyMs       the call latency
+   * @param estimatedTokens the tokens reserved on acquire
+   * @param actualTokens    the tokens reported by the provider, or {@code null} if unknown
+   */
+  public void onSuccess(ModelOperation operation, long latencyMs, int estimatedTokens, Integer actualTokens) {
+    lock.lock();
+    try {
+      inFlight--;
+      if (actualTokens != null && policy.getTokensPerMinute() > 0) {
+        tokenTokens += estimatedTokens - actualTokens;
+      }
+      double baseline = latencyBaselines.getOrDefault(operation, (double) latencyMs);
+      latencyBaselines.put(operation,
+          latencyMs < baseline ? latencyMs : baseline + (latencyMs - baseline) * BASELINE_DRIFT);
+      if (latencyMs > baseline * policy.getLatencyTolerance()) {
+        concurrencyLimit = Math.max(policy.getMinConcurrency(), concurrencyLimit * LATENCY_DECREASE_RATIO);
+      } else {
+        concurrencyLimit = Math.min(policy.getMaxConcurrency(), concurrencyLimit + 1 / concurrencyLimit);
+      }
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a permit after a failed call. Rate limit failures shrink the concurrency limit.
+   *
+   * @param rateLimited whether the provider rejected the call with a rate limit
+   */
+  public void onFailure(boolean rateLimited) {
+    lock.lock();
+    try {
+      inFlight--;
+      if (rateLimited) {
+        concurrencyLimit = Math.max(policy.getMinConcurrency(), concurrencyLimit * policy.getBackoffRatio());
+        log.warn("Provider rate limit hit, concurrency limit reduced to {}", (int) concurrencyLimit);
+      }
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getConcurrencyLimit() {
+    lock.lock();
+    try {
+      return (int) concurrencyLimit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isNext(String clientId, Object ticket) {
+    return clientId.equals(rotation.peekFirst()) && waiting.get(clientId).peekFirst() == ticket;
+  }
+
+  private long nanosUntilAvailable(int estimatedTokens) {
+    if (inFlight >= (int) concurrencyLimit) {
+      return Long.MAX_VALUE;
+    }
+    long wait = 0;
+    if (policy.getRequestsPerMinute() > 0 && requestTokens < 1) {
+      wait = Math.max(wait, nanosToRefill(1 - requestTokens, policy.getRequestsPerMinute()));
+    }
+    if (policy.getTokensPerMinute() > 0) {
+      // A request larger than the whole bucket only waits for a full bucket
+      double needed = Math.min(estimatedTokens, policy.getTokensPerMinute());
+      if (tokenTokens < needed) {
+        wait = Math.max(wait, nanosToRefill(needed - tokenTokens, policy.getTokensPerMinute()));
+      }
+    }
+    return wait;
+  }
+
+  private long nanosToRefill(double missing, int perMinute) {
+    return Math.max(1, (long) (missing * TimeUnit.MINUTES.toNanos(1) / perMinute));
+  }
+
+  private void grant(String clientId, int estimatedTokens) {
+    Deque<Object> tickets = waiting.get(clientId);
+    tickets.removeFirst();
+    rotation.removeFirst();
+    if (tickets.isEmpty()) {
+      waiting.remove(clientId);
+    } else {
+      rotation.addLast(clientId);
+    }
+    inFlight++;
+    if (policy.getRequestsPerMinute() > 0) {
+      requestTokens -= 1;
+    }
+    if (policy.getTokensPerMinute() > 0) {
+      tokenTokens -= estimatedTokens;
+    }
+    changed.signalAll();
+  }
+
+  private void remove(String clientId, Object ticket) {
+    Deque<Object> tickets = waiting.get(clientId);
+    if (tickets == null) {
+      return;
+    }
+    tickets.remove(ticket);
+    if (tickets.isEmpty()) {
+      waiting.remove(clientId);
+      rotation.remove(clientId);
+    }
+    changed.signalAll();
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    double minutes = (now - lastRefillNanos) / (double) TimeUnit.MINUTES.toNanos(1);
+    lastRefillNanos = now;
+    requestTokens = Math.min(policy.getRequestsPerMinute(), requestTokens + minutes * policy.getRequestsPerMinute());
+    tokenTokens = Math.min(policy.getTokensPerMinute(), tokenTokens + minutes * policy.getTokensPerMinute());
+  }
+}
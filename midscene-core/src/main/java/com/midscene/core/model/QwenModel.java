@@ -1,25 +1,19 @@
 package com.midscene.core.model;
 
-import dev.langchain4j.data.message.ChatMessage;
-import dev.langchain4j.model.chat.ChatModel;
-import dev.langchain4j.model.chat.response.ChatResponse;
 import dev.langchain4j.model.openai.OpenAiChatModel;
-import java.util.List;
 
-public class QwenModel implements AIModel {
-
-  private final ChatModel model;
+public class QwenModel extends ChatModelAIModel {
 
   public QwenModel(String apiKey, String modelName, String baseUrl) {
-    this.model = OpenAiChatModel.builder()
+    super(OpenAiChatModel.builder()
         .apiKey(apiKey)
         .modelName(modelName)
         .baseUrl(baseUrl)
-        .build();
+        .build());
   }
 
   @Override
-  public ChatResponse chat(List<ChatMessage> messages) {
-    return model.chat(messages);
+  protected StructuredOutput structuredOutput() {
+    return StructuredOutput.JSON_OBJECT;
   }
 }
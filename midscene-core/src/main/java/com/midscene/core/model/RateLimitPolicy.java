@@ -0,0 +1,64 @@
+package com.midscene.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Limits applied by {@link ProviderRateLimiter} to all agents sharing a provider. Zero disables a per-minute limit.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitPolicy {
+
+  /**
+   * Maximum requests per minute.
+   */
+  @Builder.Default
+  private int requestsPerMinute = 0;
+
+  /**
+   * Maximum input plus output tokens per minute.
+   */
+  @Builder.Default
+  private int tokensPerMinute = 0;
+
+  /**
+   * Concurrency limit to start with before it adapts.
+   */
+  @Builder.Default
+  private int initialConcurrency = 4;
+
+  /**
+   * Lower bound of the adaptive concurrency limit.
+   */
+  @Builder.Default
+  private int minConcurrency = 1;
+
+  /**
+   * Upper bound of the adaptive concurrency limit.
+   */
+  @Builder.Default
+  private int maxConcurrency = 32;
+
+  /**
+   * Factor the concurrency limit is multiplied by after a rate limit response.
+   */
+  @Builder.Default
+  private double backoffRatio = 0.5;
+
+  /**
+   * Latency, relative to the fastest observed one, above which the concurrency limit shrinks instead of growing.
+   */
+  @Builder.Default
+  private double latencyTolerance = 2.0;
+
+  /**
+   * Maximum time a request waits for a permit in milliseconds.
+   */
+  @Builder.Default
+  private long maxWaitMs = 120000;
+}
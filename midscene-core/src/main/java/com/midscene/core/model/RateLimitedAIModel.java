@@ -0,0 +1,69 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import java.util.List;
+
+/**
+ * Decorator that passes every call through a {@link ProviderRateLimiter} shared with all other agents of the same
+ * provider scope.
+ */
+public class RateLimitedAIModel implements AIModel {
+
+  private static final int EXPECTED_OUTPUT_TOKENS = 500;
+
+  private final AIModel delegate;
+  private final ProviderRateLimiter limiter;
+  private final String clientId;
+  private final TokenEstimator tokenEstimator;
+
+  public RateLimitedAIModel(AIModel delegate, ProviderRateLimiter limiter, String clientId) {
+    this(delegate, limiter, clientId, TokenEstimator.generic());
+  }
+
+  public RateLimitedAIModel(AIModel delegate, ProviderRateLimiter limiter, String clientId,
+      TokenEstimator tokenEstimator) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+    this.clientId = clientId;
+    this.tokenEstimator = tokenEstimator;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    int estimatedTokens = tokenEstimator.estimate(messages) + EXPECTED_OUTPUT_TOKENS;
+    limiter.acquire(clientId, estimatedTokens);
+    long start = System.currentTimeMillis();
+    ChatResponse response;
+    try {
+      response = delegate.chat(messages, operation);
+    } catch (RuntimeException e) {
+      limiter.onFailure(isRateLimit(e));
+      throw e;
+    }
+    TokenUsage usage = response.tokenUsage();
+    limiter.onSuccess(operation, System.currentTimeMillis() - start, estimatedTokens,
+        usage != null ? usage.totalTokenCount() : null);
+    return response;
+  }
+
+  static boolean isRateLimit(Throwable error) {
+    for (Throwable current = error; current != null; current = current.getCause()) {
+      if (current instanceof RateLimitException) {
+        return true;
+      }
+      if (current instanceof HttpException httpException && httpException.statusCode() == 429) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
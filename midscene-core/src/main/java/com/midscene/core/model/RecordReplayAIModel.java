@@ -0,0 +1,190 @@
+package com.midscene.core.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.midscene.core.utils.MessageFingerprint;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Data;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decorator that records complete model exchanges to a local directory and replays them. Every request is keyed by
+ * the {@link MessageFingerprint} of its full message list, including screenshot bytes, so a recording is only reused
+ * when the model would see exactly the same input. Unlike {@link com.midscene.core.cache.TaskCache}, which only covers
+ * planning, this works for every call: planning, queries, locate, extract and describe.
+ *
+ * <p>Each exchange is stored as {@code <fingerprint>.json} holding the response text and token usage.</p>
+ */
+@Log4j2
+public class RecordReplayAIModel implements AIModel {
+
+  private static final com.fasterxml.jackson.databind.ObjectMapper MAPPER = JsonMapper.builder()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+      .build();
+
+  private final AIModel delegate;
+  private final Path directory;
+  private final Mode mode;
+  private final Map<String, RecordedResponse> recordings = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a record/replay decorator.
+   *
+   * @param delegate  the model that performs real calls
+   * @param directory the directory holding the recordings
+   * @param mode      the record/replay mode
+   */
+  public RecordReplayAIModel(AIModel delegate, Path directory, Mode mode) {
+    this.delegate = delegate;
+    this.directory = directory;
+    this.mode = mode;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    if (mode == Mode.PASSTHROUGH) {
+      return delegate.chat(messages, operation);
+    }
+
+    String key = MessageFingerprint.of(messages);
+    if (mode == Mode.REPLAY || mode == Mode.RECORD_MISSING) {
+      Optional<RecordedResponse> recorded = load(key);
+      if (recorded.isPresent()) {
+        log.debug("Replaying recorded model response {}", key.substring(0, 8));
+        return recorded.get().toChatResponse();
+      }
+      if (mode == Mode.REPLAY) {
+        throw new IllegalStateException("No recording for request " + key.substring(0, 8) + " in " + directory
+            + "; record it first or use RECORD_MISSING");
+      }
+      log.info("No recording for request {}, calling model", key.substring(0, 8));
+    }
+
+    ChatResponse response = delegate.chat(messages, operation);
+    store(key, RecordedResponse.from(response));
+    return response;
+  }
+
+  /**
+   * Gets the record/replay mode.
+   *
+   * @return the mode
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  private Optional<RecordedResponse> load(String key) {
+    RecordedResponse cached = recordings.get(key);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    Path file = directory.resolve(key + ".json");
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try {
+      RecordedResponse recorded = MAPPER.readValue(file.toFile(), RecordedResponse.class);
+      recordings.put(key, recorded);
+      return Optional.of(recorded);
+    } catch (IOException e) {
+      log.warn("Failed to read recording {}: {}", file, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void store(String key, RecordedResponse recorded) {
+    recordings.put(key, recorded);
+    try {
+      Files.createDirectories(directory);
+      // Write to a temporary file first so concurrent readers never see a partial recording
+      Path temp = Files.createTempFile(directory, key, ".tmp");
+      MAPPER.writeValue(temp.toFile(), recorded);
+      Files.move(temp, directory.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Failed to store recording {}: {}", key.substring(0, 8), e.getMessage());
+    }
+  }
+
+  /**
+   * Record/replay mode.
+   */
+  public enum Mode {
+    /**
+     * Always call the model and (re)record every response.
+     */
+    RECORD,
+    /**
+     * Serve recorded responses only; a request without a recording fails instead of calling the model.
+     */
+    REPLAY,
+    /**
+     * Serve recorded responses; requests without a recording call the model and are recorded.
+     */
+    RECORD_MISSING,
+    /**
+     * Neither read nor write recordings.
+     */
+    PASSTHROUGH
+  }
+
+  /**
+   * Serialized form of a recorded response.
+   */
+  @Data
+  static class RecordedResponse {
+
+    private String text;
+    private Integer inputTokens;
+    private Integer outputTokens;
+    private String finishReason;
+    private String modelName;
+
+    static RecordedResponse from(ChatResponse response) {
+      RecordedResponse recorded = new RecordedResponse();
+      recorded.setText(response.aiMessage().text());
+      TokenUsage usage = response.tokenUsage();
+      if (usage != null) {
+        recorded.setInputTokens(usage.inputTokenCount());
+        recorded.setOutputTokens(usage.outputTokenCount());
+      }
+      if (response.finishReason() != null) {
+        recorded.setFinishReason(response.finishReason().name());
+      }
+      recorded.setModelName(response.modelName());
+      return recorded;
+    }
+
+    ChatResponse toChatResponse() {
+      ChatResponse.Builder builder = ChatResponse.builder()
+          .aiMessage(AiMessage.from(text))
+          .modelName(modelName);
+      if (inputTokens != null || outputTokens != null) {
+        builder.tokenUsage(new TokenUsage(inputTokens, outputTokens));
+      }
+      if (finishReason != null) {
+        builder.finishReason(FinishReason.valueOf(finishReason));
+      }
+      return builder.build();
+    }
+  }
+}
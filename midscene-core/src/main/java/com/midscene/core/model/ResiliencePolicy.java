@@ -0,0 +1,46 @@
+package com.midscene.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transport retry and circuit breaker settings for {@link ResilientAIModel}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResiliencePolicy {
+
+  /**
+   * Maximum attempts per call, including the first one.
+   */
+  @Builder.Default
+  private int maxAttempts = 4;
+
+  /**
+   * Backoff ceiling of the first retry in milliseconds; it doubles with every further retry.
+   */
+  @Builder.Default
+  private long initialBackoffMs = 500;
+
+  /**
+   * Maximum backoff between two attempts in milliseconds.
+   */
+  @Builder.Default
+  private long maxBackoffMs = 10000;
+
+  /**
+   * Consecutive transient failures after which the circuit opens.
+   */
+  @Builder.Default
+  private int failureThreshold = 5;
+
+  /**
+   * Time the circuit stays open before a trial call is let through, in milliseconds.
+   */
+  @Builder.Default
+  private long openDurationMs = 30000;
+}
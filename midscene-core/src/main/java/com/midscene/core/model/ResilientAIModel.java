@@ -0,0 +1,99 @@
+package com.midscene.core.model;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RetriableException;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decorator that retries transient transport errors (timeouts, connection failures, 429 and 5xx responses) with
+ * jittered exponential backoff, guarded by a {@link CircuitBreaker}. The same messages are re-sent, so the page is not
+ * observed again. Calls that cannot be completed end in a {@link ModelUnavailableException}; other errors, such as
+ * invalid requests, are passed through untouched.
+ */
+@Log4j2
+public class ResilientAIModel implements AIModel {
+
+  private final AIModel delegate;
+  private final ResiliencePolicy policy;
+  private final CircuitBreaker circuitBreaker;
+
+  public ResilientAIModel(AIModel delegate, ResiliencePolicy policy, CircuitBreaker circuitBreaker) {
+    this.delegate = delegate;
+    this.policy = policy;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return chat(messages, null);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    for (int attempt = 1; ; attempt++) {
+      if (!circuitBreaker.allowRequest()) {
+        throw new ModelUnavailableException("Model provider is unavailable, circuit breaker is open");
+      }
+      try {
+        ChatResponse response = delegate.chat(messages, operation);
+        circuitBreaker.onSuccess();
+        return response;
+      } catch (RuntimeException e) {
+        if (!isTransient(e)) {
+          // The provider answered, so it is reachable; this also ends a half-open trial
+          circuitBreaker.onSuccess();
+          throw e;
+        }
+        circuitBreaker.onFailure();
+        if (attempt >= policy.getMaxAttempts()) {
+          throw new ModelUnavailableException("Model call failed after " + attempt + " attempts: " + e.getMessage(), e);
+        }
+        long backoffMs = backoffMs(attempt);
+        log.warn("Transient model error (attempt {}/{}), retrying in {} ms: {}", attempt, policy.getMaxAttempts(),
+            backoffMs, e.getMessage());
+        sleep(backoffMs);
+      }
+    }
+  }
+
+  /**
+   * Checks whether an error is a transient transport failure worth retrying.
+   *
+   * @param error the error
+   * @return true for timeouts, I/O failures, rate limits and server errors
+   */
+  static boolean isTransient(Throwable error) {
+    for (Throwable current = error; current != null; current = current.getCause()) {
+      if (current instanceof RetriableException || current instanceof IOException
+          || current instanceof TimeoutException) {
+        return true;
+      }
+      if (current instanceof HttpException httpException) {
+        int status = httpException.statusCode();
+        return status == 408 || status == 429 || status >= 500;
+      }
+    }
+    return false;
+  }
+
+  private long backoffMs(int attempt) {
+    long ceiling = Math.min(policy.getMaxBackoffMs(), policy.getInitialBackoffMs() << Math.min(attempt - 1, 30));
+    // Full jitter keeps agents that failed together from retrying together
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ModelUnavailableException("Interrupted while backing off", e);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.midscene.core.model;
+
+import com.midscene.core.pojo.type.AIActionType;
+import com.midscene.core.pojo.type.BySelectorType;
+import dev.langchain4j.model.chat.request.json.JsonArraySchema;
+import dev.langchain4j.model.chat.request.json.JsonIntegerSchema;
+import dev.langchain4j.model.chat.request.json.JsonObjectSchema;
+import dev.langchain4j.model.chat.request.json.JsonSchema;
+import java.util.Arrays;
+import lombok.experimental.UtilityClass;
+
+/**
+ * JSON schemas of the model responses that are parsed by the agent, used to constrain the output of providers that
+ * support structured responses. They mirror {@code PlanningResponse} and the locate and describe prompts of
+ * {@code Service}. Extractions have caller-defined fields, so they are only constrained to be a JSON object.
+ */
+@UtilityClass
+public class ResponseSchemas {
+
+  private final JsonObjectSchema POINT = JsonObjectSchema.builder()
+      .addIntegerProperty("x")
+      .addIntegerProperty("y")
+      .required("x", "y")
+      .build();
+
+  private final JsonObjectSchema ACTION = JsonObjectSchema.builder()
+      .addEnumProperty("type", Arrays.stream(AIActionType.values()).map(Enum::name).toList())
+      .addProperty("locate", POINT)
+      .addStringProperty("elementSelector")
+      .addEnumProperty("selectorType", Arrays.stream(BySelectorType.values()).map(Enum::name).toList())
+      .addStringProperty("text")
+      .addStringProperty("value")
+      .addStringProperty("inputMode")
+      .addStringProperty("keyName")
+      .addStringProperty("direction")
+      .addStringProperty("scrollType")
+      .addIntegerProperty("distance")
+      .addStringProperty("url")
+      .addProperty("from", POINT)
+      .addProperty("to", POINT)
+      .addIntegerProperty("durationMs")
+      .addIntegerProperty("sleepMs")
+      .addStringProperty("assertion")
+      .addIntegerProperty("timeoutMs")
+      .required("type")
+      .build();
+
+  private final JsonSchema PLANNING = JsonSchema.builder()
+      .name("PlanningResponse")
+      .rootElement(JsonObjectSchema.builder()
+          .addStringProperty("log")
+          .addBooleanProperty("moreActionsNeededByInstruction")
+          .addProperty("actions", JsonArraySchema.builder().items(ACTION).build())
+          .addIntegerProperty("sleep")
+          .addStringProperty("error")
+          .required("log", "moreActionsNeededByInstruction", "actions")
+          .build())
+      .build();
+
+  private final JsonArraySchema INTEGERS = JsonArraySchema.builder()
+      .items(JsonIntegerSchema.builder().build())
+      .build();
+
+  private final JsonSchema LOCATE = JsonSchema.builder()
+      .name("LocateResponse")
+      .rootElement(JsonObjectSchema.builder()
+          .addBooleanProperty("found")
+          .addProperty("bbox", INTEGERS)
+          .addProperty("center", INTEGERS)
+          .addStringProperty("description")
+          .addStringProperty("reason")
+          .required("found")
+          .build())
+      .build();
+
+  private final JsonSchema DESCRIBE = JsonSchema.builder()
+      .name("DescribeResponse")
+      .rootElement(JsonObjectSchema.builder()
+          .addStringProperty("description")
+          .required("description")
+          .build())
+      .build();
+
+  /**
+   * Returns the schema of the response expected for an operation.
+   *
+   * @param operation the operation
+   * @return the schema, or null if the response has no fixed schema
+   */
+  public JsonSchema forOperation(ModelOperation operation) {
+    if (operation == null) {
+      return null;
+    }
+    return switch (operation) {
+      case PLANNING, REPLANNING -> PLANNING;
+      case LOCATE -> LOCATE;
+      case DESCRIBE -> DESCRIBE;
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,91 @@
+package com.midscene.core.model;
+
+import com.midscene.core.utils.ObjectMapper;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Routes each call to a model chosen by its {@link ModelOperation}. Operations without a dedicated route, as well as
+ * {@link ModelOperation#REPLANNING} after a failed plan, use the primary (strongest) model.
+ *
+ * <p>When a routed model throws or returns output that cannot be used for the operation (blank text, or text that does
+ * not contain a JSON object for operations that expect one), the call is escalated to the primary model.</p>
+ */
+@Log4j2
+public class RoutingAIModel implements AIModel {
+
+  private final AIModel primary;
+  private final Map<ModelOperation, AIModel> routes;
+  private final AtomicLong escalations = new AtomicLong();
+
+  /**
+   * Creates a routing model.
+   *
+   * @param primary the strongest model, used for unrouted operations and escalations
+   * @param routes  cheaper models per operation
+   */
+  public RoutingAIModel(AIModel primary, Map<ModelOperation, AIModel> routes) {
+    this.primary = primary;
+    this.routes = routes.isEmpty() ? new EnumMap<>(ModelOperation.class) : new EnumMap<>(routes);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages) {
+    return primary.chat(messages);
+  }
+
+  @Override
+  public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+    AIModel routed = operation != null ? routes.get(operation) : null;
+    if (routed == null) {
+      return primary.chat(messages, operation);
+    }
+
+    try {
+      ChatResponse response = routed.chat(messages, operation);
+      if (isUsable(response, operation)) {
+        return response;
+      }
+      log.info("Routed model returned unusable output for {}, escalating to primary model", operation);
+    } catch (RuntimeException e) {
+      log.info("Routed model failed for {} ({}), escalating to primary model", operation, e.getMessage());
+    }
+
+    escalations.incrementAndGet();
+    return primary.chat(messages, operation);
+  }
+
+  /**
+   * Returns how many calls were escalated from a routed model to the primary model.
+   *
+   * @return the escalation count
+   */
+  public long getEscalationCount() {
+    return escalations.get();
+  }
+
+  private boolean isUsable(ChatResponse response, ModelOperation operation) {
+    if (response == null || response.aiMessage() == null) {
+      return false;
+    }
+    String text = response.aiMessage().text();
+    if (text == null || text.isBlank()) {
+      return false;
+    }
+    if (!operation.expectsJson()) {
+      return true;
+    }
+
+    try {
+      // Parsed the way the planner and the service parse it, so an answer they accept is never escalated
+      return ObjectMapper.readTree(text).isObject();
+    } catch (Exception e) {
+      return false;
+    }
+  }
+}
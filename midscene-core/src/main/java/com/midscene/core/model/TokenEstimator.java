@@ -0,0 +1,186 @@
+package com.midscene.core.model;
+
+import com.midscene.core.config.ModelProvider;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.Content;
+import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Estimates request sizes locally, before anything is sent. Text is approximated the way BPE tokenizers split it
+ * (word pieces, one token per symbol or non-Latin character) and scaled per provider family; images are costed with
+ * each family's published formula from the dimensions in the PNG header.
+ */
+public class TokenEstimator {
+
+  /**
+   * Tokenizer families with distinct text and image accounting.
+   */
+  public enum Family {
+    OPENAI(1.0),
+    ANTHROPIC(1.15),
+    GEMINI(0.95),
+    GENERIC(1.1);
+
+    private final double textFactor;
+
+    Family(double textFactor) {
+      this.textFactor = textFactor;
+    }
+  }
+
+  private static final int CHARS_PER_WORD_PIECE = 6;
+  private static final int TOKENS_PER_MESSAGE = 4;
+  private static final int DEFAULT_IMAGE_WIDTH = 1280;
+  private static final int DEFAULT_IMAGE_HEIGHT = 800;
+
+  private final Family family;
+
+  public TokenEstimator(Family family) {
+    this.family = family;
+  }
+
+  /**
+   * Returns the estimator matching the tokenizer of a provider.
+   *
+   * @param provider the model provider
+   * @return the estimator
+   */
+  public static TokenEstimator forProvider(ModelProvider provider) {
+    return new TokenEstimator(switch (provider) {
+      case OPENAI, AZURE_OPEN_AI -> Family.OPENAI;
+      case ANTHROPIC -> Family.ANTHROPIC;
+      case GEMINI -> Family.GEMINI;
+      default -> Family.GENERIC;
+    });
+  }
+
+  /**
+   * Returns a conservative estimator for unknown providers.
+   *
+   * @return the generic estimator
+   */
+  public static TokenEstimator generic() {
+    return new TokenEstimator(Family.GENERIC);
+  }
+
+  public Family getFamily() {
+    return family;
+  }
+
+  /**
+   * Estimates the input tokens of a request.
+   *
+   * @param messages the messages to send
+   * @return the estimated number of input tokens
+   */
+  public int estimate(List<ChatMessage> messages) {
+    int tokens = 0;
+    for (ChatMessage message : messages) {
+      tokens += TOKENS_PER_MESSAGE;
+      if (message instanceof UserMessage userMessage) {
+        for (Content content : userMessage.contents()) {
+          if (content instanceof TextContent textContent) {
+            tokens += estimateText(textContent.text());
+          } else if (content instanceof ImageContent imageContent) {
+            tokens += estimateImage(imageContent);
+          }
+        }
+      } else if (message instanceof SystemMessage systemMessage) {
+        tokens += estimateText(systemMessage.text());
+      } else if (message instanceof AiMessage aiMessage && aiMessage.text() != null) {
+        tokens += estimateText(aiMessage.text());
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Estimates the tokens of a text.
+   *
+   * @param text the text
+   * @return the estimated number of tokens
+   */
+  public int estimateText(String text) {
+    if (text == null || text.isEmpty()) {
+      return 0;
+    }
+    int tokens = 0;
+    int run = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c < 128 && Character.isLetterOrDigit(c)) {
+        run++;
+        continue;
+      }
+      tokens += (run + CHARS_PER_WORD_PIECE - 1) / CHARS_PER_WORD_PIECE;
+      run = 0;
+      // Whitespace usually merges into the next word piece, everything else is roughly a token of its own
+      if (!Character.isWhitespace(c)) {
+        tokens++;
+      }
+    }
+    tokens += (run + CHARS_PER_WORD_PIECE - 1) / CHARS_PER_WORD_PIECE;
+    return (int) Math.ceil(tokens * family.textFactor);
+  }
+
+  /**
+   * Estimates the tokens of an image.
+   *
+   * @param image the image content
+   * @return the estimated number of tokens
+   */
+  public int estimateImage(ImageContent image) {
+    int[] size = pngSize(image.image().base64Data());
+    double width = size != null ? size[0] : DEFAULT_IMAGE_WIDTH;
+    double height = size != null ? size[1] : DEFAULT_IMAGE_HEIGHT;
+
+    switch (family) {
+      case ANTHROPIC -> {
+        double scale = Math.min(1, 1568 / Math.max(width, height));
+        return (int) Math.ceil(width * scale * height * scale / 750);
+      }
+      case GEMINI -> {
+        if (width <= 384 && height <= 384) {
+          return 258;
+        }
+        return (int) (Math.ceil(width / 768) * Math.ceil(height / 768) * 258);
+      }
+      default -> {
+        // Fit into 2048x2048, then scale the shortest side down to 768 and count 512px tiles
+        double scale = Math.min(1, 2048 / Math.max(width, height));
+        width *= scale;
+        height *= scale;
+        scale = Math.min(1, 768 / Math.min(width, height));
+        width *= scale;
+        height *= scale;
+        return (int) (85 + 170 * Math.ceil(width / 512) * Math.ceil(height / 512));
+      }
+    }
+  }
+
+  private static int[] pngSize(String base64) {
+    if (base64 == null || base64.length() < 32) {
+      return null;
+    }
+    try {
+      byte[] header = Base64.getDecoder().decode(base64.substring(0, 32));
+      if ((header[0] & 0xFF) != 0x89 || header[1] != 'P' || header[2] != 'N' || header[3] != 'G') {
+        return null;
+      }
+      return new int[]{readInt(header, 16), readInt(header, 20)};
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+        | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+  }
+}
@@ -21,11 +21,17 @@ public class WaitOptions {
   private long timeoutMs = 30000;
 
   /**
-   * Interval between checks in milliseconds.
+   * Interval between checks in milliseconds, used when the driver cannot wait for page changes.
    */
   @Builder.Default
   private long checkIntervalMs = 1000;
 
+  /**
+   * How long the page must stay unchanged after a change before the condition is checked again, in milliseconds.
+   */
+  @Builder.Default
+  private long quietPeriodMs = 300;
+
   /**
    * Whether to throw an exception if the wait times out.
    */
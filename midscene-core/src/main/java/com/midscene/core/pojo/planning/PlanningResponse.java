@@ -1,5 +1,6 @@
 package com.midscene.core.pojo.planning;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 import lombok.Data;
 
@@ -39,4 +40,28 @@ public class PlanningResponse {
    * Token usage description (set by Java code, not from AI).
    */
   private String description;
+
+  /**
+   * Locally estimated input tokens of the planning request (set by Java code, not from AI).
+   */
+  @JsonIgnore
+  private Integer estimatedPromptTokens;
+
+  /**
+   * Input tokens reported by the provider (set by Java code, not from AI).
+   */
+  @JsonIgnore
+  private Integer promptTokens;
+
+  /**
+   * Output tokens reported by the provider (set by Java code, not from AI).
+   */
+  @JsonIgnore
+  private Integer completionTokens;
+
+  /**
+   * Whether the plan was served from the task cache (set by Java code, not from AI).
+   */
+  @JsonIgnore
+  private boolean fromCache;
 }
\ No newline at end of file
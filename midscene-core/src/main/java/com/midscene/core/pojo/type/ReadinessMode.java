@@ -0,0 +1,40 @@
+package com.midscene.core.pojo.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * How settled a page must be before a {@link com.midscene.core.service.PageDriver} acts on it or takes a screenshot.
+ * Each mode includes the checks of the previous one.
+ */
+@Getter
+@AllArgsConstructor
+public enum ReadinessMode {
+  /**
+   * The document has finished loading.
+   */
+  LOAD("load"),
+
+  /**
+   * No fetch or XMLHttpRequest has been in flight for a short quiet period.
+   */
+  NETWORK_IDLE("network_idle"),
+
+  /**
+   * The network is idle and the layout has stopped moving: no finite CSS animation or transition is running and
+   * element positions are unchanged between two animation frames.
+   */
+  VISUALLY_STABLE("visually_stable");
+
+  private final String value;
+
+  /**
+   * Checks whether this mode includes the checks of another one.
+   *
+   * @param other the other mode
+   * @return true if this mode is at least as strict as the other one
+   */
+  public boolean includes(ReadinessMode other) {
+    return compareTo(other) >= 0;
+  }
+}
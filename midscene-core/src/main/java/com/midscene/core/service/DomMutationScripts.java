@@ -0,0 +1,104 @@
+package com.midscene.core.service;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Browser-side scripts shared by the {@link PageDriver} implementations to wait for the page to change. A single
+ * MutationObserver records changes to the document; waiting resolves once the page has been quiet for a debounce
+ * window after a change, so a burst of updates results in a single wakeup.
+ */
+@UtilityClass
+public class DomMutationScripts {
+
+  /**
+   * Attributes that signal a change of state. Focus-ring and data attributes are not observed, and neither is
+   * {@code style}: animations rewrite it on every frame, which would keep the page from ever becoming quiet. A style
+   * change only counts when it shows or hides its element.
+   */
+  public final String OBSERVED_ATTRIBUTES = "['class', 'hidden', 'disabled', 'checked', 'selected', 'value',"
+      + " 'open', 'src', 'href', 'aria-hidden', 'aria-expanded', 'aria-selected', 'aria-checked', 'aria-disabled',"
+      + " 'aria-busy']";
+
+  private final String INSTALL_OBSERVER = """
+      const installed = !!window.__midscene_mutations;
+      if (!installed) {
+        const state = { dirty: false, listener: null };
+        const changed = () => {
+          state.dirty = true;
+          if (state.listener) {
+            state.listener();
+          }
+        };
+        new MutationObserver(changed).observe(document.documentElement, {
+          childList: true, subtree: true, characterData: true, attributes: true,
+          attributeFilter: %s
+        });
+        const shown = new WeakMap();
+        const probe = document.createElement('div');
+        const visible = el => {
+          const style = getComputedStyle(el);
+          return style.display !== 'none' && style.visibility !== 'hidden';
+        };
+        const flipped = record => {
+          const el = record.target;
+          const now = visible(el);
+          let before = shown.get(el);
+          if (before === undefined) {
+            // First change of this element: its earlier visibility is only known from the old inline style
+            probe.style.cssText = record.oldValue || '';
+            const same = probe.style.display === el.style.display && probe.style.visibility === el.style.visibility;
+            before = same ? now : probe.style.display !== 'none' && probe.style.visibility !== 'hidden';
+          }
+          shown.set(el, now);
+          return before !== now;
+        };
+        new MutationObserver(records => {
+          if (records.filter(flipped).length > 0) {
+            changed();
+          }
+        }).observe(document.documentElement, {
+          subtree: true, attributes: true, attributeOldValue: true, attributeFilter: ['style']
+        });
+        window.__midscene_mutations = state;
+      }
+      """.formatted(OBSERVED_ATTRIBUTES);
+
+  /**
+   * Installs the observer if needed and forgets earlier changes. Plain script, run with {@code executeScript}.
+   */
+  public final String OBSERVE = "(() => {\n" + INSTALL_OBSERVER + "window.__midscene_mutations.dirty = false;\n})();";
+
+  /**
+   * A function of {@code [quietPeriodMs, timeoutMs]} returning a promise of whether the page changed. It resolves
+   * {@code true} once the page has been quiet for the quiet period after a change, and when the observer was lost to a
+   * navigation; it resolves at the timeout with whether a change is still settling.
+   */
+  public final String AWAIT = """
+      ([quietPeriodMs, timeoutMs]) => new Promise(resolve => {
+        %s
+        const state = window.__midscene_mutations;
+        if (!installed) {
+          resolve(true);
+          return;
+        }
+        let quietTimer;
+        let deadline;
+        const finish = changed => {
+          clearTimeout(quietTimer);
+          clearTimeout(deadline);
+          state.listener = null;
+          state.dirty = false;
+          resolve(changed);
+        };
+        const settle = () => {
+          clearTimeout(quietTimer);
+          quietTimer = setTimeout(() => finish(true), quietPeriodMs);
+        };
+        deadline = setTimeout(() => finish(state.dirty), timeoutMs);
+        state.listener = settle;
+        if (state.dirty) {
+          settle();
+        }
+      })
+      """.formatted(INSTALL_OBSERVER.indent(2).strip());
+}
@@ -1,7 +1,11 @@
 package com.midscene.core.service;
 
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.Locate;
 import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.pojo.type.ReadinessMode;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for browser page interactions. Implementations provide the actual browser automation logic.
@@ -185,6 +189,51 @@ public interface PageDriver {
     throw new UnsupportedOperationException("scrollRight not implemented");
   }
 
+  /**
+   * Scroll the page, or the scroll container under the location, by a distance in a single script call.
+   *
+   * @param locate a point inside the scroll container, or null to scroll the page
+   * @param deltaX pixels to scroll right, negative to scroll left
+   * @param deltaY pixels to scroll down, negative to scroll up
+   */
+  default void scrollBy(Locate locate, int deltaX, int deltaY) {
+    evaluate(ScrollScripts.at(locate, deltaX, deltaY, null));
+  }
+
+  /**
+   * Scroll the scroll container of the element located by the selector by a distance in a single script call.
+   *
+   * @param selectorType    the selector type, e.g. TEXT, ID, XPATH
+   * @param elementSelector the element selector, e.g. "List"
+   * @param deltaX          pixels to scroll right, negative to scroll left
+   * @param deltaY          pixels to scroll down, negative to scroll up
+   */
+  default void scrollBy(BySelectorType selectorType, String elementSelector, int deltaX, int deltaY) {
+    evaluate(ScrollScripts.on(selectorType, elementSelector, deltaX, deltaY, null));
+  }
+
+  /**
+   * Scroll the page, or the scroll container under the location, all the way to an edge in a single script call.
+   *
+   * @param locate a point inside the scroll container, or null to scroll the page
+   * @param edge   "top", "bottom", "left" or "right"
+   */
+  default void scrollToEdge(Locate locate, String edge) {
+    evaluate(ScrollScripts.at(locate, 0, 0, edge));
+  }
+
+  /**
+   * Scroll the scroll container of the element located by the selector all the way to an edge in a single script
+   * call.
+   *
+   * @param selectorType    the selector type, e.g. TEXT, ID, XPATH
+   * @param elementSelector the element selector, e.g. "List"
+   * @param edge            "top", "bottom", "left" or "right"
+   */
+  default void scrollToEdge(BySelectorType selectorType, String elementSelector, String edge) {
+    evaluate(ScrollScripts.on(selectorType, elementSelector, 0, 0, edge));
+  }
+
   // ========== Gesture Actions ==========
 
   /**
@@ -223,6 +272,20 @@ public interface PageDriver {
     throw new UnsupportedOperationException("dragAndDrop not implemented");
   }
 
+  // ========== Batch Actions ==========
+
+  /**
+   * Execute consecutive coordinate-based pointer and keyboard actions, ideally in a single round trip to the browser.
+   * The default implementation executes them one by one; drivers override it to compose the actions into one input
+   * sequence and use {@code single} for any action they cannot compose.
+   *
+   * @param actions the actions to execute, in order
+   * @param single  executes one action through the regular per-action methods
+   */
+  default void executeBatch(List<ActionsItem> actions, Consumer<ActionsItem> single) {
+    actions.forEach(single);
+  }
+
   // ========== Navigation Actions ==========
 
   /**
@@ -260,6 +323,54 @@ public interface PageDriver {
     throw new UnsupportedOperationException("executeScript not implemented");
   }
 
+  /**
+   * Evaluate a JavaScript expression in the browser and return its value.
+   *
+   * @param expression the JavaScript expression, e.g. an immediately invoked function
+   * @return the value of the expression
+   */
+  default Object evaluate(String expression) {
+    return executeScript("return " + expression + ";");
+  }
+
+  /**
+   * Start recording changes to the page, see {@link #awaitMutations(long, long)}. Changes made before this call are
+   * forgotten.
+   */
+  default void observeMutations() {
+    executeScript(DomMutationScripts.OBSERVE);
+  }
+
+  /**
+   * Block until the page changed and then stayed quiet for the quiet period, or until the timeout. Only structural,
+   * text and state-attribute changes count; inline style changes only when they show or hide an element.
+   *
+   * @param quietPeriodMs how long the page must stay unchanged after a change
+   * @param timeoutMs     the maximum time to wait
+   * @return true if the page changed since {@link #observeMutations()} or the previous call, false on timeout
+   */
+  default boolean awaitMutations(long quietPeriodMs, long timeoutMs) {
+    throw new UnsupportedOperationException("awaitMutations not implemented");
+  }
+
+  /**
+   * Set how settled the page must be before the driver acts on it or takes a screenshot.
+   *
+   * @param mode the readiness mode
+   */
+  default void setReadinessMode(ReadinessMode mode) {
+    throw new UnsupportedOperationException("setReadinessMode not implemented");
+  }
+
+  /**
+   * Get how settled the page must be before the driver acts on it or takes a screenshot.
+   *
+   * @return the readiness mode
+   */
+  default ReadinessMode getReadinessMode() {
+    return ReadinessMode.LOAD;
+  }
+
   /**
    * Take a screenshot of the current page.
    *
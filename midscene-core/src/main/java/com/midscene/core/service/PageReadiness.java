@@ -0,0 +1,77 @@
+package com.midscene.core.service;
+
+import java.util.function.BooleanSupplier;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Tracks whether the page of a {@link PageDriver} has finished loading, so the load check is not repeated before
+ * every driver call. The page is remembered as loaded until an action that may navigate (a click, key press,
+ * navigation or reload) invalidates it; the next call then re-checks with a short poll.
+ */
+@Log4j2
+public class PageReadiness {
+
+  public static final long DEFAULT_POLL_INTERVAL_MS = 50;
+  public static final long DEFAULT_TIMEOUT_MS = 5000;
+
+  private final BooleanSupplier loadedCheck;
+  @Getter
+  private volatile boolean ready;
+  @Getter
+  @Setter
+  private long pollIntervalMs = DEFAULT_POLL_INTERVAL_MS;
+  @Getter
+  @Setter
+  private long timeoutMs = DEFAULT_TIMEOUT_MS;
+
+  /**
+   * @param loadedCheck checks in the browser whether the page has finished loading
+   */
+  public PageReadiness(BooleanSupplier loadedCheck) {
+    this.loadedCheck = loadedCheck;
+  }
+
+  /**
+   * Returns immediately if the page is known to be loaded, otherwise polls the load check until it passes or the
+   * timeout elapses. A page that never finishes loading is treated as loaded after the timeout, with a warning, so
+   * the following calls do not wait again.
+   */
+  public void awaitReady() {
+    if (ready) {
+      return;
+    }
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (!isLoaded()) {
+      if (System.currentTimeMillis() >= deadline) {
+        log.warn("Page not loaded after {} ms", timeoutMs);
+        break;
+      }
+      try {
+        Thread.sleep(pollIntervalMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+    ready = true;
+  }
+
+  /**
+   * Forgets that the page is loaded, to be called after an action that may have started a navigation.
+   */
+  public void invalidate() {
+    ready = false;
+  }
+
+  private boolean isLoaded() {
+    try {
+      return loadedCheck.getAsBoolean();
+    } catch (RuntimeException e) {
+      // The document may be replaced mid-check during a navigation
+      log.debug("Page load check failed: {}", e.getMessage());
+      return false;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.midscene.core.service;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Browser-side scripts shared by the {@link PageDriver} implementations to check the stricter
+ * {@link com.midscene.core.pojo.type.ReadinessMode readiness modes}.
+ */
+@UtilityClass
+public class ReadinessScripts {
+
+  /**
+   * Milliseconds without network activity after which the network counts as idle, as in Playwright.
+   */
+  public final long NETWORK_QUIET_PERIOD_MS = 500;
+
+  /**
+   * Installs a counter of in-flight fetch and XMLHttpRequest calls. Installing it is idempotent; where the driver can
+   * run it before the page scripts it sees every request, otherwise the first check seeds the last activity time from
+   * the resource timing entries of the requests started before it.
+   */
+  public final String NETWORK_TRACKER = """
+      if (!window.__midscene_network) {
+        const resources = performance.getEntriesByType('resource');
+        const lastEnd = resources.reduce((last, entry) => Math.max(last, entry.responseEnd), 0);
+        const state = { pending: 0, lastActivity: performance.timeOrigin + lastEnd };
+        window.__midscene_network = state;
+        const started = () => {
+          state.pending++;
+          state.lastActivity = Date.now();
+        };
+        const finished = () => {
+          state.pending = Math.max(0, state.pending - 1);
+          state.lastActivity = Date.now();
+        };
+        if (window.fetch) {
+          const fetch = window.fetch;
+          window.fetch = function () {
+            started();
+            return fetch.apply(this, arguments).finally(finished);
+          };
+        }
+        const send = XMLHttpRequest.prototype.send;
+        XMLHttpRequest.prototype.send = function () {
+          started();
+          this.addEventListener('loadend', finished, { once: true });
+          return send.apply(this, arguments);
+        };
+      }""";
+
+  /**
+   * Expression that installs the network counter if needed and evaluates to true once the network is idle.
+   */
+  public final String NETWORK_IDLE = "(() => {\n" + NETWORK_TRACKER + "\n"
+      + "const network = window.__midscene_network;\n"
+      + "return network.pending === 0 && Date.now() - network.lastActivity >= " + NETWORK_QUIET_PERIOD_MS + ";\n"
+      + "})()";
+
+  /**
+   * Function returning a promise that resolves to true if no finite animation is running and the position of the
+   * first elements of the page is the same in two consecutive animation frames. Pages that get no animation frames,
+   * e.g. in a background tab, only have their animations checked.
+   */
+  public final String VISUALLY_STABLE = """
+      () => new Promise(resolve => {
+        const animating = () => document.getAnimations().some(animation => animation.playState === 'running'
+          && animation.effect && animation.effect.getComputedTiming().iterations !== Infinity);
+        const layout = () => Array.from(document.body ? document.body.getElementsByTagName('*') : [])
+          .slice(0, 300)
+          .map(el => {
+            const rect = el.getBoundingClientRect();
+            return rect.x + ',' + rect.y + ',' + rect.width + ',' + rect.height;
+          })
+          .join(';') + '|' + window.scrollX + ',' + window.scrollY;
+        if (animating()) {
+          resolve(false);
+          return;
+        }
+        // Hidden pages get no animation frames, and nothing moves on them either
+        setTimeout(() => resolve(!animating()), 500);
+        requestAnimationFrame(() => {
+          const before = layout();
+          requestAnimationFrame(() => resolve(!animating() && layout() === before));
+        });
+      })""";
+}
@@ -0,0 +1,90 @@
+package com.midscene.core.service;
+
+import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.utils.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Browser-side scroll script shared by the {@link PageDriver} implementations. A single call scrolls either the page
+ * or the nearest scroll container of an element, by a distance or all the way to an edge.
+ */
+@UtilityClass
+public class ScrollScripts {
+
+  private final String SCROLL_FUNCTION = """
+      (({ x, y, selector, xpath, deltaX, deltaY, edge }) => {
+        let el = null;
+        if (selector != null) {
+          el = xpath
+            ? document.evaluate(selector, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue
+            : document.querySelector(selector);
+        } else if (x != null) {
+          el = document.elementFromPoint(x, y);
+        }
+        const vertical = edge ? edge === 'top' || edge === 'bottom' : deltaY !== 0;
+        const root = node => !node || node === document.body || node === document.documentElement;
+        const scrollable = node => {
+          const style = getComputedStyle(node);
+          return /(auto|scroll|overlay)/.test(vertical ? style.overflowY : style.overflowX)
+            && (vertical ? node.scrollHeight > node.clientHeight : node.scrollWidth > node.clientWidth);
+        };
+        while (!root(el) && !scrollable(el)) {
+          el = el.parentElement;
+        }
+        const target = root(el) ? document.scrollingElement || document.documentElement : el;
+        const before = target.scrollLeft + ',' + target.scrollTop;
+        if (edge === 'top' || edge === 'bottom') {
+          target.scrollTo({ top: edge === 'top' ? 0 : target.scrollHeight, behavior: 'instant' });
+        } else if (edge === 'left' || edge === 'right') {
+          target.scrollTo({ left: edge === 'left' ? 0 : target.scrollWidth, behavior: 'instant' });
+        } else {
+          target.scrollBy({ left: deltaX, top: deltaY, behavior: 'instant' });
+        }
+        return target.scrollLeft + ',' + target.scrollTop !== before;
+      })""";
+
+  /**
+   * Builds the expression scrolling the page, or the scroll container under a point.
+   *
+   * @param locate the point, or null to scroll the page
+   * @param deltaX pixels to scroll right, negative to scroll left
+   * @param deltaY pixels to scroll down, negative to scroll up
+   * @param edge   "top", "bottom", "left" or "right" to scroll to that edge instead, or null
+   * @return the expression, evaluating to true if the scroll position changed
+   */
+  public String at(Locate locate, int deltaX, int deltaY, String edge) {
+    Map<String, Object> args = new LinkedHashMap<>();
+    if (locate != null) {
+      args.put("x", locate.getX());
+      args.put("y", locate.getY());
+    }
+    return call(args, deltaX, deltaY, edge);
+  }
+
+  /**
+   * Builds the expression scrolling the scroll container of the element matching a selector.
+   *
+   * @param selectorType    the selector type
+   * @param elementSelector the element selector
+   * @param deltaX          pixels to scroll right, negative to scroll left
+   * @param deltaY          pixels to scroll down, negative to scroll up
+   * @param edge            "top", "bottom", "left" or "right" to scroll to that edge instead, or null
+   * @return the expression, evaluating to true if the scroll position changed
+   */
+  public String on(BySelectorType selectorType, String elementSelector, int deltaX, int deltaY, String edge) {
+    Map<String, Object> args = new LinkedHashMap<>();
+    args.put("selector", elementSelector);
+    args.put("xpath", selectorType == BySelectorType.BY_XPATH);
+    return call(args, deltaX, deltaY, edge);
+  }
+
+  private String call(Map<String, Object> args, int deltaX, int deltaY, String edge) {
+    args.put("deltaX", deltaX);
+    args.put("deltaY", deltaY);
+    args.put("edge", edge);
+    return SCROLL_FUNCTION + "(" + ObjectMapper.writeValueAsString(args) + ")";
+  }
+}
@@ -1,12 +1,16 @@
 package com.midscene.core.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.midscene.core.model.AIModel;
+import com.midscene.core.model.ModelOperation;
 import com.midscene.core.pojo.options.LocateOptions;
+import com.midscene.core.utils.ObjectMapper;
 import dev.langchain4j.data.message.ImageContent;
 import dev.langchain4j.data.message.TextContent;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.model.chat.response.ChatResponse;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
 import lombok.extern.log4j.Log4j2;
@@ -74,7 +78,7 @@ public class Service {
       String prompt = buildLocatePrompt(elementDescription, options);
 
       // Call AI model
-      String response = chatWithImage(prompt, screenshotBase64);
+      String response = chatWithImage(prompt, screenshotBase64, ModelOperation.LOCATE);
 
       // Parse the response to extract coordinates
       LocateResult result = parseLocateResponse(response);
@@ -107,7 +111,7 @@ public class Service {
       String screenshotBase64 = screenshotSupplier.get();
 
       String prompt = buildExtractPrompt(query);
-      String response = chatWithImage(prompt, screenshotBase64);
+      String response = chatWithImage(prompt, screenshotBase64, ModelOperation.EXTRACT);
 
       ExtractResult<String> result = parseExtractResponse(response);
       result.setDurationMs(System.currentTimeMillis() - startTime);
@@ -138,7 +142,7 @@ public class Service {
       String screenshotBase64 = screenshotSupplier.get();
 
       String prompt = buildStructuredExtractPrompt(dataDemand);
-      String response = chatWithImage(prompt, screenshotBase64);
+      String response = chatWithImage(prompt, screenshotBase64, ModelOperation.EXTRACT);
 
       ExtractResult<Map<String, Object>> result = parseStructuredExtractResponse(response, dataDemand);
       result.setDurationMs(System.currentTimeMillis() - startTime);
@@ -182,7 +186,7 @@ public class Service {
       String screenshotBase64 = screenshotSupplier.get();
 
       String prompt = buildDescribePrompt(x, y, deepThink);
-      String response = chatWithImage(prompt, screenshotBase64);
+      String response = chatWithImage(prompt, screenshotBase64, ModelOperation.DESCRIBE);
 
       DescribeResult result = parseDescribeResponse(response);
       result.setDurationMs(System.currentTimeMillis() - startTime);
@@ -210,7 +214,7 @@ public class Service {
     return describe(center[0], center[1], false);
   }
 
-  private String chatWithImage(String prompt, String screenshotBase64) {
+  private String chatWithImage(String prompt, String screenshotBase64, ModelOperation operation) {
     UserMessage message;
     if (screenshotBase64 != null) {
       String mimeType = "image/png";
@@ -232,7 +236,7 @@ public class Service {
       message = UserMessage.from(prompt);
     }
 
-    ChatResponse response = aiModel.chat(Collections.singletonList(message));
+    ChatResponse response = aiModel.chat(Collections.singletonList(message), operation);
     return response.aiMessage().text();
   }
 
@@ -299,22 +303,24 @@ public class Service {
 
   private LocateResult parseLocateResponse(String response) {
     try {
-      // Parse JSON response - basic implementation
-      // In production, use proper JSON parsing
-      boolean found = response.contains("\"found\": true") || response.contains("\"found\":true");
-
-      if (!found) {
+      JsonNode root = ObjectMapper.readTree(response);
+      if (!root.path("found").asBoolean(false)) {
+        String reason = root.path("reason").asText(null);
         return LocateResult.builder()
             .element(null)
-            .error("Element not found")
+            .error(reason != null ? "Element not found: " + reason : "Element not found")
             .build();
       }
 
-      // Extract bbox values (simplified parsing)
-      int[] bbox = extractBbox(response);
-      int[] center = extractCenter(response);
+      int[] bbox = readInts(root.get("bbox"), 4);
+      int[] center = readInts(root.get("center"), 2);
+      if (bbox == null && center == null) {
+        return LocateResult.builder()
+            .error("Element found but no coordinates returned")
+            .build();
+      }
 
-      LocateResult.Rect rect = LocateResult.Rect.builder()
+      LocateResult.Rect rect = bbox == null ? null : LocateResult.Rect.builder()
           .left(bbox[0])
           .top(bbox[1])
           .width(bbox[2])
@@ -324,7 +330,7 @@ public class Service {
       LocateResult.LocatedElement element = LocateResult.LocatedElement.builder()
           .center(center != null ? center : rect.getCenter())
           .rect(rect)
-          .description(extractStringField(response, "description"))
+          .description(root.path("description").asText(null))
           .build();
 
       return LocateResult.builder()
@@ -342,12 +348,12 @@ public class Service {
 
   private ExtractResult<String> parseExtractResponse(String response) {
     try {
-      String data = extractStringField(response, "data");
-      String thought = extractStringField(response, "thought");
+      JsonNode root = ObjectMapper.readTree(response);
+      JsonNode data = root.get("data");
 
       return ExtractResult.<String>builder()
-          .data(data)
-          .thought(thought)
+          .data(data == null || data.isNull() ? null : data.isValueNode() ? data.asText() : data.toString())
+          .thought(root.path("thought").asText(null))
           .build();
     } catch (Exception e) {
       return ExtractResult.<String>builder()
@@ -359,20 +365,21 @@ public class Service {
   private ExtractResult<Map<String, Object>> parseStructuredExtractResponse(String response,
       Map<String, String> dataDemand) {
     try {
-      // Simplified parsing - in production use proper JSON parsing
-      String thought = extractStringField(response, "thought");
+      JsonNode root = ObjectMapper.readTree(response);
+      // Models either follow the prompt and nest the fields under "data" or return them at the top level
+      JsonNode fields = root.path("data").isObject() ? root.get("data") : root;
 
-      java.util.Map<String, Object> data = new java.util.HashMap<>();
+      Map<String, Object> data = new HashMap<>();
       for (String key : dataDemand.keySet()) {
-        String value = extractStringField(response, key);
-        if (value != null) {
-          data.put(key, value);
+        JsonNode value = fields.get(key);
+        if (value != null && !value.isNull()) {
+          data.put(key, ObjectMapper.convertValue(value, Object.class));
         }
       }
 
       return ExtractResult.<Map<String, Object>>builder()
           .data(data)
-          .thought(thought)
+          .thought(root.path("thought").asText(null))
           .build();
     } catch (Exception e) {
       return ExtractResult.<Map<String, Object>>builder()
@@ -383,9 +390,8 @@ public class Service {
 
   private DescribeResult parseDescribeResponse(String response) {
     try {
-      String description = extractStringField(response, "description");
       return DescribeResult.builder()
-          .description(description)
+          .description(ObjectMapper.readTree(response).path("description").asText(null))
           .build();
     } catch (Exception e) {
       return DescribeResult.builder()
@@ -394,90 +400,17 @@ public class Service {
     }
   }
 
-  private int[] extractBbox(String response) {
-    // Simplified bbox extraction
-    int[] defaultBbox = {0, 0, 100, 100};
-    try {
-      int bboxStart = response.indexOf("\"bbox\"");
-      if (bboxStart == -1) {
-        return defaultBbox;
-      }
-
-      int arrayStart = response.indexOf("[", bboxStart);
-      int arrayEnd = response.indexOf("]", arrayStart);
-      if (arrayStart == -1 || arrayEnd == -1) {
-        return defaultBbox;
-      }
-
-      String arrayStr = response.substring(arrayStart + 1, arrayEnd);
-      String[] parts = arrayStr.split(",");
-      if (parts.length >= 4) {
-        return new int[]{
-            Integer.parseInt(parts[0].trim()),
-            Integer.parseInt(parts[1].trim()),
-            Integer.parseInt(parts[2].trim()),
-            Integer.parseInt(parts[3].trim())
-        };
-      }
-    } catch (Exception e) {
-      log.trace("Failed to extract bbox: {}", e.getMessage());
-    }
-    return defaultBbox;
-  }
-
-  private int[] extractCenter(String response) {
-    try {
-      int centerStart = response.indexOf("\"center\"");
-      if (centerStart == -1) {
-        return null;
-      }
-
-      int arrayStart = response.indexOf("[", centerStart);
-      int arrayEnd = response.indexOf("]", arrayStart);
-      if (arrayStart == -1 || arrayEnd == -1) {
-        return null;
-      }
-
-      String arrayStr = response.substring(arrayStart + 1, arrayEnd);
-      String[] parts = arrayStr.split(",");
-      if (parts.length >= 2) {
-        return new int[]{
-            Integer.parseInt(parts[0].trim()),
-            Integer.parseInt(parts[1].trim())
-        };
-      }
-    } catch (Exception e) {
-      log.trace("Failed to extract center: {}", e.getMessage());
+  private int[] readInts(JsonNode array, int size) {
+    if (array == null || !array.isArray() || array.size() < size) {
+      return null;
     }
-    return null;
-  }
-
-  private String extractStringField(String response, String fieldName) {
-    try {
-      String searchPattern = "\"" + fieldName + "\"";
-      int fieldStart = response.indexOf(searchPattern);
-      if (fieldStart == -1) {
-        return null;
-      }
-
-      int colonPos = response.indexOf(":", fieldStart);
-      if (colonPos == -1) {
-        return null;
-      }
-
-      int valueStart = response.indexOf("\"", colonPos);
-      if (valueStart == -1) {
-        return null;
-      }
-
-      int valueEnd = response.indexOf("\"", valueStart + 1);
-      if (valueEnd == -1) {
+    int[] values = new int[size];
+    for (int i = 0; i < size; i++) {
+      if (!array.get(i).isNumber()) {
         return null;
       }
-
-      return response.substring(valueStart + 1, valueEnd);
-    } catch (Exception e) {
-      return null;
+      values[i] = (int) Math.round(array.get(i).asDouble());
     }
+    return values;
   }
 }
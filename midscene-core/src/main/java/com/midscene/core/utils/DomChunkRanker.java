@@ -0,0 +1,263 @@
+package com.midscene.core.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Selects the parts of a page that are relevant to an instruction. The page is split into element-level chunks (the
+ * attribute values and direct text of every element), the chunks are ranked against the instruction with BM25, and
+ * only the best subtrees are kept together with their ancestors so that the result is still well-formed markup.
+ */
+@UtilityClass
+public class DomChunkRanker {
+
+  private final Pattern TAG = Pattern.compile("<(/?)([a-zA-Z][\\w:-]*)((?:\"[^\"]*\"|'[^']*'|[^'\">])*)>|<![^>]*>");
+  private final Pattern ATTRIBUTE = Pattern.compile("([\\w:-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))");
+  private final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+  private final Pattern CAMEL_CASE = Pattern.compile("(?<=\\p{Ll})(?=\\p{Lu})");
+  private final Set<String> VOID_ELEMENTS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input",
+      "link", "meta", "source", "track", "wbr");
+  private final Set<String> SIBLING_CLOSED_ELEMENTS = Set.of("li", "p", "option", "tr", "td", "th", "dt", "dd");
+  private final Set<String> IGNORED_ATTRIBUTES = Set.of("style", "d", "src", "srcset");
+  private final Set<String> STOP_WORDS = Set.of("a", "an", "the", "to", "of", "on", "in", "and", "or", "for", "with",
+      "is", "at", "by", "into", "then", "it", "this", "that", "be", "as", "from");
+
+  private final double K1 = 1.2;
+  private final double B = 0.75;
+
+  /**
+   * A selected subtree larger than this is reduced to its own tag and text.
+   */
+  private final int MAX_SUBTREE_CHARS = 4000;
+
+  /**
+   * Keeps the {@code topK} chunks that best match the query, with their subtrees and ancestors, in document order.
+   *
+   * @param html  the page source
+   * @param query the instruction to rank against
+   * @param topK  the number of chunks to keep
+   * @return the reduced page source, or the original one if it has no more than {@code topK} chunks or nothing in it
+   * matches the query
+   */
+  public String select(String html, String query, int topK) {
+    if (html == null || query == null || topK < 1) {
+      return html;
+    }
+    Set<String> queryTerms = new HashSet<>(terms(query));
+    if (queryTerms.isEmpty()) {
+      return html;
+    }
+
+    Node root = parse(PageSourceTrimmer.strip(html));
+    List<Node> chunks = new ArrayList<>();
+    collectChunks(root, chunks);
+    if (chunks.size() <= topK) {
+      return html;
+    }
+
+    List<Node> selected = rank(chunks, queryTerms, topK);
+    if (selected.isEmpty()) {
+      return html;
+    }
+
+    Set<Node> ancestors = new HashSet<>();
+    for (Node node : selected) {
+      for (Node parent = node.parent; parent != null; parent = parent.parent) {
+        ancestors.add(parent);
+      }
+    }
+    StringBuilder out = new StringBuilder();
+    for (Node child : root.children) {
+      render(child, new HashSet<>(selected), ancestors, out);
+    }
+    return out.toString();
+  }
+
+  private List<Node> rank(List<Node> chunks, Set<String> queryTerms, int topK) {
+    Map<String, Integer> documentFrequency = new HashMap<>();
+    long totalLength = 0;
+    for (Node chunk : chunks) {
+      totalLength += chunk.terms.size();
+      for (String term : new HashSet<>(chunk.terms)) {
+        if (queryTerms.contains(term)) {
+          documentFrequency.merge(term, 1, Integer::sum);
+        }
+      }
+    }
+    double averageLength = Math.max(1.0, (double) totalLength / chunks.size());
+
+    for (Node chunk : chunks) {
+      Map<String, Integer> frequency = new HashMap<>();
+      for (String term : chunk.terms) {
+        if (queryTerms.contains(term)) {
+          frequency.merge(term, 1, Integer::sum);
+        }
+      }
+      double score = 0;
+      for (Map.Entry<String, Integer> entry : frequency.entrySet()) {
+        int n = documentFrequency.get(entry.getKey());
+        double idf = Math.log(1 + (chunks.size() - n + 0.5) / (n + 0.5));
+        double tf = entry.getValue();
+        score += idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * chunk.terms.size() / averageLength));
+      }
+      chunk.score = score;
+    }
+
+    return chunks.stream()
+        .filter(chunk -> chunk.score > 0)
+        .sorted(Comparator.comparingDouble((Node chunk) -> chunk.score).reversed())
+        .limit(topK)
+        .toList();
+  }
+
+  private void render(Node node, Set<Node> selected, Set<Node> ancestors, StringBuilder out) {
+    if (node.tag == null) {
+      return;
+    }
+    if (selected.contains(node)) {
+      StringBuilder subtree = new StringBuilder();
+      renderFull(node, subtree);
+      if (subtree.length() <= MAX_SUBTREE_CHARS) {
+        out.append(subtree);
+      } else {
+        out.append(node.openTag).append(String.join(" ", node.texts)).append(closeTag(node));
+      }
+      return;
+    }
+    if (ancestors.contains(node)) {
+      out.append(node.openTag);
+      for (Node child : node.children) {
+        render(child, selected, ancestors, out);
+      }
+      out.append(closeTag(node));
+    }
+  }
+
+  private void renderFull(Node node, StringBuilder out) {
+    if (node.tag == null) {
+      out.append(node.text);
+      return;
+    }
+    out.append(node.openTag);
+    for (Node child : node.children) {
+      renderFull(child, out);
+    }
+    out.append(closeTag(node));
+  }
+
+  private String closeTag(Node node) {
+    return node.selfClosing ? "" : "</" + node.tag + ">";
+  }
+
+  private void collectChunks(Node node, List<Node> chunks) {
+    for (Node child : node.children) {
+      if (child.tag != null) {
+        if (!child.terms.isEmpty()) {
+          chunks.add(child);
+        }
+        collectChunks(child, chunks);
+      }
+    }
+  }
+
+  private Node parse(String html) {
+    Node root = new Node(null, "", null, false);
+    Deque<Node> open = new ArrayDeque<>();
+    open.push(root);
+    Matcher matcher = TAG.matcher(html);
+    int last = 0;
+    while (matcher.find()) {
+      addText(open.peek(), html.substring(last, matcher.start()));
+      last = matcher.end();
+      if (matcher.group(2) == null) {
+        continue; // doctype or leftover comment
+      }
+      String tag = matcher.group(2).toLowerCase(Locale.ROOT);
+      if (!matcher.group(1).isEmpty()) {
+        if (open.stream().anyMatch(node -> tag.equals(node.tag))) {
+          Node closed;
+          do {
+            closed = open.pop(); // also closes elements the page left open
+          } while (!tag.equals(closed.tag));
+        }
+        continue;
+      }
+      if (SIBLING_CLOSED_ELEMENTS.contains(tag) && tag.equals(open.peek().tag)) {
+        open.pop(); // an unclosed <li> ends where the next one starts
+      }
+      String attributes = matcher.group(3);
+      boolean selfClosing = VOID_ELEMENTS.contains(tag) || attributes.trim().endsWith("/");
+      Node element = new Node(tag, matcher.group(), open.peek(), selfClosing);
+      Matcher attribute = ATTRIBUTE.matcher(attributes);
+      while (attribute.find()) {
+        if (!IGNORED_ATTRIBUTES.contains(attribute.group(1).toLowerCase(Locale.ROOT))) {
+          String value = attribute.group(2) != null ? attribute.group(2)
+              : attribute.group(3) != null ? attribute.group(3) : attribute.group(4);
+          element.terms.addAll(terms(value));
+        }
+      }
+      open.peek().children.add(element);
+      if (!selfClosing) {
+        open.push(element);
+      }
+    }
+    addText(open.peek(), html.substring(last));
+    return root;
+  }
+
+  private void addText(Node parent, String text) {
+    if (text.isBlank()) {
+      return;
+    }
+    Node node = new Node(null, "", parent, true);
+    node.text = text;
+    parent.children.add(node);
+    parent.texts.add(text.trim());
+    parent.terms.addAll(terms(text));
+  }
+
+  private List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    Matcher matcher = TERM.matcher(text);
+    while (matcher.find()) {
+      for (String part : CAMEL_CASE.split(matcher.group())) {
+        String term = part.toLowerCase(Locale.ROOT);
+        if (!STOP_WORDS.contains(term)) {
+          terms.add(term);
+        }
+      }
+    }
+    return terms;
+  }
+
+  private static final class Node {
+
+    private final String tag;
+    private final String openTag;
+    private final Node parent;
+    private final boolean selfClosing;
+    private final List<Node> children = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final List<String> terms = new ArrayList<>();
+    private String text;
+    private double score;
+
+    private Node(String tag, String openTag, Node parent, boolean selfClosing) {
+      this.tag = tag;
+      this.openTag = openTag;
+      this.parent = parent;
+      this.selfClosing = selfClosing;
+    }
+  }
+}
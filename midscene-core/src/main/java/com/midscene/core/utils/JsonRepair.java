@@ -0,0 +1,199 @@
+package com.midscene.core.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Local syntactic repair of truncated or sloppy JSON produced by models: unterminated strings and brackets are closed,
+ * dangling commas and keys dropped, and Python literals ({@code True}, {@code False}, {@code None}) converted.
+ * Everything else is left to the lenient parsing of {@link ObjectMapper}.
+ */
+@UtilityClass
+public class JsonRepair {
+
+  /**
+   * Attempts to turn the given model output into parseable JSON.
+   *
+   * @param input the malformed output
+   * @return the repaired JSON text
+   */
+  public String repair(String input) {
+    String json = ObjectMapper.extractJson(input);
+    StringBuilder out = new StringBuilder(json.length() + 8);
+    Deque<Character> open = new ArrayDeque<>();
+    char quote = 0;
+
+    for (int i = 0; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (quote != 0) {
+        out.append(c);
+        if (c == '\\' && i + 1 < json.length()) {
+          out.append(json.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      switch (c) {
+        case '"', '\'' -> {
+          quote = c;
+          out.append(c);
+        }
+        case '{' -> {
+          open.push('}');
+          out.append(c);
+        }
+        case '[' -> {
+          open.push(']');
+          out.append(c);
+        }
+        case '}', ']' -> {
+          if (!open.isEmpty() && open.peek() == c) {
+            open.pop();
+            out.append(c);
+          }
+          // Stray closing brackets are dropped
+        }
+        default -> {
+          String literal = pythonLiteral(json, i);
+          if (literal != null) {
+            out.append(literal);
+            i += literal.length() - 1;
+          } else {
+            out.append(c);
+          }
+        }
+      }
+    }
+
+    if (quote != 0) {
+      out.append(quote);
+    }
+    while (!open.isEmpty()) {
+      trimDangling(out);
+      out.append(open.pop());
+    }
+    return out.toString();
+  }
+
+  /**
+   * Finds the arrays left open where the output stops, i.e. the arrays whose last element may have been cut off.
+   *
+   * @param input the malformed output
+   * @return the keys of the open arrays, e.g. {@code actions}; empty if the output is not truncated inside an array
+   */
+  public Set<String> openArrays(String input) {
+    String json = ObjectMapper.extractJson(input);
+    Deque<String> open = new ArrayDeque<>();
+    StringBuilder string = new StringBuilder();
+    String lastString = null;
+    boolean afterColon = false;
+    char quote = 0;
+
+    for (int i = 0; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (quote != 0) {
+        if (c == '\\' && i + 1 < json.length()) {
+          string.append(json.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+          lastString = string.toString();
+        } else {
+          string.append(c);
+        }
+        continue;
+      }
+      switch (c) {
+        case '"', '\'' -> {
+          quote = c;
+          string.setLength(0);
+          afterColon = false;
+        }
+        case ':' -> afterColon = true;
+        case '{' -> {
+          open.push("{");
+          afterColon = false;
+        }
+        case '[' -> {
+          // Arrays are recorded by key; nested arrays without a key get an empty one
+          open.push("[" + (afterColon && lastString != null ? lastString : ""));
+          afterColon = false;
+        }
+        case '}', ']' -> {
+          if (!open.isEmpty() && open.peek().charAt(0) == (c == '}' ? '{' : '[')) {
+            open.pop();
+          }
+          afterColon = false;
+        }
+        default -> {
+          if (!Character.isWhitespace(c)) {
+            afterColon = false;
+          }
+        }
+      }
+    }
+
+    Set<String> arrays = new HashSet<>();
+    for (String container : open) {
+      if (container.charAt(0) == '[') {
+        arrays.add(container.substring(1));
+      }
+    }
+    return arrays;
+  }
+
+  private String pythonLiteral(String json, int index) {
+    if (index > 0 && Character.isLetterOrDigit(json.charAt(index - 1))) {
+      return null;
+    }
+    for (String[] literal : new String[][]{{"True", "true"}, {"False", "false"}, {"None", "null"}}) {
+      int end = index + literal[0].length();
+      if (json.startsWith(literal[0], index)
+          && (end == json.length() || !Character.isLetterOrDigit(json.charAt(end)))) {
+        return literal[1];
+      }
+    }
+    return null;
+  }
+
+  private void trimDangling(StringBuilder out) {
+    // A value cut off after "key": or after a comma cannot be completed, so drop the incomplete member
+    while (true) {
+      int last = out.length() - 1;
+      while (last >= 0 && Character.isWhitespace(out.charAt(last))) {
+        last--;
+      }
+      out.setLength(last + 1);
+      if (last < 0) {
+        return;
+      }
+      char c = out.charAt(last);
+      if (c == ',') {
+        out.setLength(last);
+      } else if (c == ':') {
+        out.setLength(last);
+        removeTrailingKey(out);
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void removeTrailingKey(StringBuilder out) {
+    int end = out.length() - 1;
+    while (end >= 0 && Character.isWhitespace(out.charAt(end))) {
+      end--;
+    }
+    if (end < 0 || (out.charAt(end) != '"' && out.charAt(end) != '\'')) {
+      return;
+    }
+    int start = end - 1;
+    while (start >= 0 && out.charAt(start) != out.charAt(end)) {
+      start--;
+    }
+    out.setLength(Math.max(start, 0));
+  }
+}
@@ -0,0 +1,80 @@
+package com.midscene.core.utils;
+
+import dev.langchain4j.data.image.Image;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.Content;
+import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Computes stable fingerprints of chat requests. The fingerprint covers every message in order, including the text
+ * of the instruction, the page source and the raw image data of screenshots, so two requests share a fingerprint only
+ * if the model would see exactly the same input.
+ */
+@UtilityClass
+public class MessageFingerprint {
+
+  private final byte SEPARATOR = 0;
+
+  /**
+   * Computes the SHA-256 fingerprint of a message list.
+   *
+   * @param messages the messages to fingerprint
+   * @return the hex encoded fingerprint
+   */
+  public String of(List<ChatMessage> messages) {
+    MessageDigest digest = newDigest();
+    for (ChatMessage message : messages) {
+      update(digest, message.type().name());
+      if (message instanceof SystemMessage systemMessage) {
+        update(digest, systemMessage.text());
+      } else if (message instanceof UserMessage userMessage) {
+        for (Content content : userMessage.contents()) {
+          update(digest, content);
+        }
+      } else if (message instanceof AiMessage aiMessage) {
+        update(digest, aiMessage.text());
+      } else {
+        update(digest, message.toString());
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private void update(MessageDigest digest, Content content) {
+    update(digest, content.type().name());
+    if (content instanceof TextContent textContent) {
+      update(digest, textContent.text());
+    } else if (content instanceof ImageContent imageContent) {
+      Image image = imageContent.image();
+      update(digest, image.mimeType());
+      update(digest, image.base64Data() != null ? image.base64Data() : String.valueOf(image.url()));
+    } else {
+      update(digest, content.toString());
+    }
+  }
+
+  private void update(MessageDigest digest, String value) {
+    if (value != null) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update(SEPARATOR);
+  }
+
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
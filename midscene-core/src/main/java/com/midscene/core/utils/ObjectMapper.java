@@ -1,6 +1,8 @@
 package com.midscene.core.utils;
 
+import com.fasterxml.jackson.core.json.JsonReadFeature;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import lombok.experimental.UtilityClass;
@@ -8,15 +10,21 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ObjectMapper {
 
+  // Model output is parsed leniently: trailing commas, single quotes, comments and unquoted names are common slips
   private final com.fasterxml.jackson.databind.ObjectMapper MAPPER = JsonMapper.builder()
       .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true)
       .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS, true)
       .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_VALUES, true)
       .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+      .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+      .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+      .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+      .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+      .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
       .build();
 
   public <T> T mapResponseToClass(String jsonResponse, Class<T> mappedClass) {
-    String clearedJson = cleanMarkdown(jsonResponse);
+    String clearedJson = extractJson(jsonResponse);
 
     try {
       return MAPPER.readValue(clearedJson, mappedClass);
@@ -25,6 +33,24 @@ public class ObjectMapper {
     }
   }
 
+  /**
+   * Parses the JSON value contained in a model response into a tree.
+   *
+   * @param jsonResponse the model response, possibly wrapped in markdown or prose
+   * @return the parsed tree
+   */
+  public JsonNode readTree(String jsonResponse) {
+    try {
+      return MAPPER.readTree(extractJson(jsonResponse));
+    } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+      throw new RuntimeException("Failed to decode json response", e);
+    }
+  }
+
+  public <T> T convertValue(JsonNode node, Class<T> mappedClass) {
+    return MAPPER.convertValue(node, mappedClass);
+  }
+
   public String writeValueAsString(Object value) {
     try {
       return MAPPER.writeValueAsString(value);
@@ -33,6 +59,50 @@ public class ObjectMapper {
     }
   }
 
+  /**
+   * Cuts the first complete JSON object or array out of a model response, skipping markdown fences and any prose
+   * around it. Brackets inside string literals are ignored. An unterminated value is returned as is.
+   *
+   * @param input the model response
+   * @return the JSON text
+   */
+  public String extractJson(String input) {
+    int start = -1;
+    for (int i = 0; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (c == '{' || c == '[') {
+        start = i;
+        break;
+      }
+    }
+    if (start == -1) {
+      return cleanMarkdown(input);
+    }
+
+    int depth = 0;
+    char quote = 0;
+    for (int i = start; i < input.length(); i++) {
+      char c = input.charAt(i);
+      if (quote != 0) {
+        if (c == '\\') {
+          i++;
+        } else if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (c == '{' || c == '[') {
+        depth++;
+      } else if (c == '}' || c == ']') {
+        depth--;
+        if (depth == 0) {
+          return input.substring(start, i + 1);
+        }
+      }
+    }
+    return input.substring(start).trim();
+  }
+
   private String cleanMarkdown(String input) {
     return input.replaceAll("^```[a-z]*\\s*", "")
         .replaceAll("\\s*```$", "")
@@ -0,0 +1,43 @@
+package com.midscene.core.utils;
+
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shrinks page source before it is sent to a model: drops markup that carries no information for planning (scripts,
+ * styles, SVG paths, comments) and, if that is not enough, cuts the document at a tag boundary.
+ */
+@UtilityClass
+public class PageSourceTrimmer {
+
+  private final Pattern NOISE = Pattern.compile(
+      "(?is)<script\\b.*?</script>|<style\\b.*?</style>|<svg\\b.*?</svg>|<noscript\\b.*?</noscript>|<!--.*?-->");
+  private final Pattern WHITESPACE = Pattern.compile("\\s{2,}");
+
+  public final String TRUNCATION_MARKER = "\n<!-- page source truncated -->";
+
+  /**
+   * Removes scripts, styles, SVG graphics and comments and collapses whitespace.
+   *
+   * @param html the page source
+   * @return the stripped page source
+   */
+  public String strip(String html) {
+    return WHITESPACE.matcher(NOISE.matcher(html).replaceAll("")).replaceAll(" ").trim();
+  }
+
+  /**
+   * Cuts the page source to at most the given length, ending before the last complete tag that fits.
+   *
+   * @param html     the page source
+   * @param maxChars the maximum length
+   * @return the truncated page source, marked as such if anything was cut
+   */
+  public String truncate(String html, int maxChars) {
+    if (html.length() <= maxChars) {
+      return html;
+    }
+    int cut = html.lastIndexOf('<', Math.max(0, maxChars));
+    return html.substring(0, cut > 0 ? cut : Math.max(0, maxChars)) + TRUNCATION_MARKER;
+  }
+}
@@ -0,0 +1,68 @@
+package com.midscene.core.yaml;
+
+import com.midscene.core.pojo.planning.ActionsItem;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Replay artifact of a successful script run. Every {@code aiAction} flow item is stored with the concrete actions it
+ * executed and checkpoints describing the page they were executed on, so a later run can replay them without the
+ * model.
+ */
+@Data
+public class CompiledScript {
+
+  /**
+   * Path of the YAML script the artifact was compiled from.
+   */
+  private String source;
+
+  /**
+   * Compilation time in milliseconds since the epoch.
+   */
+  private long compiledAt;
+
+  /**
+   * Compiled {@code aiAction} flow items.
+   */
+  private List<CompiledStep> steps = new ArrayList<>();
+
+  /**
+   * The actions of one {@code aiAction} flow item.
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class CompiledStep {
+
+    private String task;
+    private int flowIndex;
+    private String aiAction;
+
+    /**
+     * URL of the page the step started on.
+     */
+    private String url;
+    private List<CompiledAction> actions;
+  }
+
+  /**
+   * An action with the element it was executed on.
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class CompiledAction {
+
+    private ActionsItem action;
+
+    /**
+     * Description of the target element at compile time, see {@link ReplayCheckpoints#describeTarget}, or null if
+     * the action has no target.
+     */
+    private String target;
+  }
+}
@@ -1,5 +1,6 @@
 package com.midscene.core.yaml;
 
+import com.midscene.core.pojo.type.ReadinessMode;
 import java.util.List;
 import lombok.Data;
 
@@ -43,6 +44,12 @@ public class MidsceneYamlScript {
     private Double viewportScale;
     private String cookie;
     private Boolean waitForNetworkIdle;
+
+    /**
+     * How settled the page must be before each action and screenshot; takes precedence over
+     * {@code waitForNetworkIdle}.
+     */
+    private ReadinessMode readiness;
     private Boolean acceptInsecureCerts;
   }
 
@@ -0,0 +1,90 @@
+package com.midscene.core.yaml;
+
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.service.PageDriver;
+import com.midscene.core.utils.ObjectMapper;
+import java.net.URI;
+import java.util.Objects;
+import lombok.experimental.UtilityClass;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Lightweight DOM checks that decide whether a compiled action can be replayed on the current page: the page must be
+ * the one the step started on and the element under each action must be the one it was compiled against.
+ */
+@Log4j2
+@UtilityClass
+public class ReplayCheckpoints {
+
+  private final String DESCRIBE_FUNCTION = """
+      (el => {
+        if (!el) {
+          return null;
+        }
+        const target = el.closest('a, button, input, select, textarea, label, [role], [onclick]') || el;
+        const text = target.innerText || target.value || target.getAttribute('aria-label')
+          || target.getAttribute('placeholder') || target.getAttribute('name') || '';
+        const label = text.replace(/\\s+/g, ' ').trim().slice(0, 60);
+        return target.tagName.toLowerCase() + (label ? ':' + label : '');
+      })""";
+
+  /**
+   * Describes the element an action targets, by tag name and label, e.g. {@code button:Checkout}.
+   *
+   * @param driver the page driver
+   * @param action the action
+   * @return the description, or null if the action has no target or it cannot be found
+   */
+  public String describeTarget(PageDriver driver, ActionsItem action) {
+    String element;
+    if (action.getElementSelector() != null && action.getSelectorType() != null) {
+      String selector = ObjectMapper.writeValueAsString(action.getElementSelector());
+      element = action.getSelectorType() == BySelectorType.BY_XPATH
+          ? "document.evaluate(" + selector + ", document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null)"
+          + ".singleNodeValue"
+          : "document.querySelector(" + selector + ")";
+    } else if (action.getLocate() != null) {
+      element = "document.elementFromPoint(" + action.getLocate().getX() + ", " + action.getLocate().getY() + ")";
+    } else {
+      return null;
+    }
+    try {
+      Object description = driver.evaluate(DESCRIBE_FUNCTION + "(" + element + ")");
+      return description != null ? description.toString() : null;
+    } catch (Exception e) {
+      log.debug("Cannot describe the target of {}: {}", action.getType(), e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the current page is the one a step was compiled on. Query strings and fragments are ignored since
+   * they often carry session-specific values.
+   *
+   * @param expectedUrl the URL recorded at compile time, or null if none was recorded
+   * @param actualUrl   the current URL
+   * @return true if both URLs have the same scheme, host and path
+   */
+  public boolean samePage(String expectedUrl, String actualUrl) {
+    if (expectedUrl == null) {
+      return true;
+    }
+    if (actualUrl == null) {
+      return false;
+    }
+    try {
+      URI expected = URI.create(expectedUrl);
+      URI actual = URI.create(actualUrl);
+      return Objects.equals(expected.getScheme(), actual.getScheme())
+          && Objects.equals(expected.getHost(), actual.getHost())
+          && Objects.equals(stripTrailingSlash(expected.getPath()), stripTrailingSlash(actual.getPath()));
+    } catch (IllegalArgumentException e) {
+      return expectedUrl.equals(actualUrl);
+    }
+  }
+
+  private String stripTrailingSlash(String path) {
+    return path != null && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+  }
+}
@@ -1,16 +1,24 @@
 package com.midscene.core.yaml;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.midscene.core.agent.Agent;
+import com.midscene.core.agent.Executor;
+import com.midscene.core.agent.PlanValidator;
 import com.midscene.core.cache.TaskCache;
 import com.midscene.core.pojo.options.WaitOptions;
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.type.ReadinessMode;
+import com.midscene.core.yaml.CompiledScript.CompiledAction;
+import com.midscene.core.yaml.CompiledScript.CompiledStep;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +35,8 @@ public class ScriptPlayer {
 
   private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory())
       .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private static final ObjectMapper COMPILED_SCRIPT_WRITER = YAML_MAPPER.copy()
+      .setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
   @Getter
   private final Agent agent;
@@ -46,6 +56,21 @@ public class ScriptPlayer {
   @Setter
   private Consumer<TaskStatus> statusListener;
 
+  /**
+   * When set, a successful run writes a {@link CompiledScript} to this path.
+   */
+  @Setter
+  private Path compileOutput;
+
+  private final List<CompiledStep> compiledSteps = new ArrayList<>();
+  private final Map<String, CompiledStep> replaySteps = new HashMap<>();
+
+  @Getter
+  private int replayedSteps;
+
+  @Getter
+  private int fallbackSteps;
+
   /**
    * Creates a ScriptPlayer from a YAML file.
    *
@@ -59,6 +84,8 @@ public class ScriptPlayer {
     this.script = parseScript(scriptPath);
     initializeTaskStatuses();
     initializeCacheFromConfig();
+    initializeAgentFromConfig();
+    initializeReadinessFromConfig();
   }
 
   /**
@@ -105,6 +132,9 @@ public class ScriptPlayer {
    */
   public ScriptResult run() {
     long startTime = System.currentTimeMillis();
+    compiledSteps.clear();
+    replayedSteps = 0;
+    fallbackSteps = 0;
     log.info("Starting script execution: {}",
         scriptPath != null ? scriptPath : "InMemory");
 
@@ -157,6 +187,12 @@ public class ScriptPlayer {
     long endTime = System.currentTimeMillis();
     long duration = endTime - startTime;
     log.info("Script execution finished. Success: {}, Duration: {}ms", overallSuccess, duration);
+    if (!replaySteps.isEmpty()) {
+      log.info("Replayed {} compiled steps, {} fell back to the model", replayedSteps, fallbackSteps);
+    }
+    if (compileOutput != null && overallSuccess) {
+      writeCompiledScript();
+    }
 
     ScriptResult.ScriptResultBuilder resultBuilder = ScriptResult.builder()
         .scriptPath(scriptPath)
@@ -192,7 +228,17 @@ public class ScriptPlayer {
         for (int i = 0; i < task.getFlow().size(); i++) {
           status.updateStep(i);
           YamlFlowItem item = task.getFlow().get(i);
-          executeFlowItem(item);
+          ReadinessMode previousMode = item.getReadiness() != null ? agent.getDriver().getReadinessMode() : null;
+          if (item.getReadiness() != null) {
+            applyReadinessMode(item.getReadiness());
+          }
+          try {
+            executeFlowItem(task, i, item);
+          } finally {
+            if (previousMode != null) {
+              applyReadinessMode(previousMode);
+            }
+          }
         }
       }
       return true;
@@ -206,11 +252,13 @@ public class ScriptPlayer {
   /**
    * Executes a single flow item.
    *
-   * @param item the flow item to execute
+   * @param task      the task the flow item belongs to
+   * @param flowIndex the position of the flow item in the task
+   * @param item      the flow item to execute
    */
-  private void executeFlowItem(YamlFlowItem item) {
+  private void executeFlowItem(YamlTask task, int flowIndex, YamlFlowItem item) {
     if (item.getAiAction() != null) {
-      executeAiAction(item);
+      executeAiAction(task, flowIndex, item);
     } else if (item.getAiQuery() != null) {
       executeAiQuery(item);
     } else if (item.getAiAssert() != null) {
@@ -226,8 +274,150 @@ public class ScriptPlayer {
     }
   }
 
-  private void executeAiAction(YamlFlowItem item) {
-    agent.aiAction(item.getAiAction());
+  private void executeAiAction(YamlTask task, int flowIndex, YamlFlowItem item) {
+    CompiledStep compiled = replaySteps.get(stepKey(task.getName(), flowIndex));
+    if (compiled != null && item.getAiAction().equals(compiled.getAiAction())) {
+      int replayed = replay(compiled);
+      if (replayed == compiled.getActions().size()) {
+        replayedSteps++;
+        compiledSteps.add(compiled);
+        return;
+      }
+      fallbackSteps++;
+      if (replayed > 0) {
+        // Part of the step already ran, so the model continues from there instead of repeating it. The step is not
+        // compiled again since the model only sees its remainder.
+        log.warn("Replay of '{}' stopped after {} of {} actions, the model continues from there", item.getAiAction(),
+            replayed, compiled.getActions().size());
+        agent.aiAction(continuation(compiled, replayed));
+        return;
+      }
+    }
+
+    if (compileOutput == null) {
+      agent.aiAction(item.getAiAction());
+      return;
+    }
+
+    // Record the element under every action before it runs, to check against it on replay
+    String url = agent.getDriver().getUrl();
+    Map<ActionsItem, String> targets = new IdentityHashMap<>();
+    agent.setActionListener(action -> targets.put(action, ReplayCheckpoints.describeTarget(agent.getDriver(), action)));
+    try {
+      agent.aiAction(item.getAiAction());
+    } finally {
+      agent.setActionListener(null);
+    }
+
+    List<ActionsItem> trajectory = agent.getLastTrajectory();
+    if (trajectory.isEmpty()) {
+      log.warn("Not compiling '{}': the instruction needed retries", item.getAiAction());
+      return;
+    }
+    List<CompiledAction> actions = new ArrayList<>();
+    for (ActionsItem action : trajectory) {
+      actions.add(new CompiledAction(action, targets.get(action)));
+    }
+    compiledSteps.add(new CompiledStep(task.getName(), flowIndex, item.getAiAction(), url, actions));
+  }
+
+  /**
+   * Replays a compiled step through the executor. The checkpoints of all actions up to the first one that may change
+   * the page are checked before anything runs, since they were recorded against the page as it is now; later
+   * checkpoints are checked right before their action.
+   *
+   * @param step the compiled step
+   * @return the number of actions replayed, fewer than the step has if a checkpoint failed and the model must take over
+   */
+  private int replay(CompiledStep step) {
+    if (!ReplayCheckpoints.samePage(step.getUrl(), agent.getDriver().getUrl())) {
+      log.warn("Replay checkpoint failed for '{}': expected page {}, falling back to the model", step.getAiAction(),
+          step.getUrl());
+      return 0;
+    }
+    List<CompiledAction> actions = step.getActions();
+    int checked = 0;
+    while (checked < actions.size()) {
+      CompiledAction compiled = actions.get(checked++);
+      if (!checkpointPasses(step, compiled)) {
+        return 0;
+      }
+      if (PlanValidator.PAGE_CHANGING_ACTIONS.contains(compiled.getAction().getType())) {
+        break;
+      }
+    }
+    Executor executor = new Executor(agent.getDriver());
+    for (int i = 0; i < actions.size(); i++) {
+      if (i >= checked && !checkpointPasses(step, actions.get(i))) {
+        return i;
+      }
+      executor.execute(actions.get(i).getAction());
+    }
+    log.info("Replayed '{}' without the model ({} actions)", step.getAiAction(), actions.size());
+    return actions.size();
+  }
+
+  private boolean checkpointPasses(CompiledStep step, CompiledAction compiled) {
+    if (compiled.getTarget() == null) {
+      return true;
+    }
+    String target = ReplayCheckpoints.describeTarget(agent.getDriver(), compiled.getAction());
+    if (!compiled.getTarget().equals(target)) {
+      log.warn("Replay checkpoint failed for '{}': expected {} but found {}, falling back to the model",
+          step.getAiAction(), compiled.getTarget(), target);
+      return false;
+    }
+    return true;
+  }
+
+  private String continuation(CompiledStep step, int replayed) {
+    StringBuilder instruction = new StringBuilder("Continue this instruction: ").append(step.getAiAction())
+        .append(". These actions were already performed and must not be repeated:");
+    for (CompiledAction compiled : step.getActions().subList(0, replayed)) {
+      ActionsItem action = compiled.getAction();
+      instruction.append(" ").append(action.getType().getValue());
+      if (compiled.getTarget() != null) {
+        instruction.append(" on ").append(compiled.getTarget());
+      }
+      String text = action.getValue() != null ? action.getValue() : action.getText();
+      if (text != null) {
+        instruction.append(" '").append(text).append("'");
+      }
+      instruction.append(";");
+    }
+    return instruction.toString();
+  }
+
+  /**
+   * Loads a compiled script; its steps are then replayed without the model wherever their checkpoints pass.
+   *
+   * @param compiledScriptPath path written by a run with {@link #setCompileOutput(Path)}
+   * @throws IOException if the file cannot be read
+   */
+  public void loadCompiledScript(Path compiledScriptPath) throws IOException {
+    CompiledScript compiled = YAML_MAPPER.readValue(compiledScriptPath.toFile(), CompiledScript.class);
+    replaySteps.clear();
+    for (CompiledStep step : compiled.getSteps()) {
+      replaySteps.put(stepKey(step.getTask(), step.getFlowIndex()), step);
+    }
+    log.info("Loaded {} compiled steps from {}", replaySteps.size(), compiledScriptPath);
+  }
+
+  private void writeCompiledScript() {
+    CompiledScript compiled = new CompiledScript();
+    compiled.setSource(scriptPath);
+    compiled.setCompiledAt(System.currentTimeMillis());
+    compiled.setSteps(new ArrayList<>(compiledSteps));
+    try {
+      COMPILED_SCRIPT_WRITER.writeValue(compileOutput.toFile(), compiled);
+      log.info("Compiled {} steps to {}", compiledSteps.size(), compileOutput);
+    } catch (IOException e) {
+      log.error("Failed to write compiled script to {}", compileOutput, e);
+    }
+  }
+
+  private static String stepKey(String task, int flowIndex) {
+    return task + "#" + flowIndex;
   }
 
   private void executeAiQuery(YamlFlowItem item) {
@@ -322,6 +512,45 @@ public class ScriptPlayer {
     }
   }
 
+  /**
+   * Applies agent options from the YAML configuration.
+   */
+  private void initializeAgentFromConfig() {
+    if (script.getAgent() == null) {
+      return;
+    }
+    if (script.getAgent().getReplanningCycleLimit() != null) {
+      agent.setReplanningCycleLimit(script.getAgent().getReplanningCycleLimit());
+    }
+    if (script.getAgent().getAiActionContext() != null) {
+      agent.setAiActionContext(script.getAgent().getAiActionContext());
+    }
+  }
+
+  /**
+   * Applies the readiness mode of the script: {@code web.readiness}, or network idle if only
+   * {@code web.waitForNetworkIdle} is set.
+   */
+  private void initializeReadinessFromConfig() {
+    MidsceneYamlScript.WebEnvironment web = script.getWeb();
+    if (web == null) {
+      return;
+    }
+    if (web.getReadiness() != null) {
+      applyReadinessMode(web.getReadiness());
+    } else if (Boolean.TRUE.equals(web.getWaitForNetworkIdle())) {
+      applyReadinessMode(ReadinessMode.NETWORK_IDLE);
+    }
+  }
+
+  private void applyReadinessMode(ReadinessMode mode) {
+    try {
+      agent.getDriver().setReadinessMode(mode);
+    } catch (UnsupportedOperationException e) {
+      log.warn("Driver does not support readiness mode {}, using its default", mode);
+    }
+  }
+
   /**
    * Notifies listeners of a task status change.
    *
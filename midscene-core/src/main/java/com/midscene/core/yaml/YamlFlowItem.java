@@ -1,5 +1,6 @@
 package com.midscene.core.yaml;
 
+import com.midscene.core.pojo.type.ReadinessMode;
 import lombok.Data;
 
 /**
@@ -102,6 +103,11 @@ public class YamlFlowItem {
    */
   private String name;
 
+  /**
+   * Readiness mode for this flow item only, overriding the one of the script.
+   */
+  private ReadinessMode readiness;
+
   /**
    * Gets the AI action value from any of the action fields.
    *
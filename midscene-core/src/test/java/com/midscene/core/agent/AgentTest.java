@@ -1,11 +1,24 @@
 package com.midscene.core.agent;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import com.midscene.core.config.MidsceneConfig;
 import com.midscene.core.config.ModelProvider;
 import com.midscene.core.context.Context;
+import com.midscene.core.context.ContextEvent;
+import com.midscene.core.model.AIModel;
+import com.midscene.core.pojo.options.WaitOptions;
 import com.midscene.core.service.PageDriver;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
 import org.junit.jupiter.api.Test;
 
 class AgentTest {
@@ -23,4 +36,36 @@ class AgentTest {
 
     assertNotNull(context);
   }
+
+  @Test
+  void testAiWaitForChecksSimpleConditionInPage() {
+    PageDriver driver = mock(PageDriver.class);
+    AIModel aiModel = mock(AIModel.class);
+    Agent agent = new Agent(driver, aiModel);
+    when(driver.evaluate(anyString())).thenReturn(false, true);
+    when(driver.awaitMutations(anyLong(), anyLong())).thenReturn(true);
+
+    agent.aiWaitFor("the page shows 'Order confirmed'", WaitOptions.builder().timeoutMs(2000).build());
+
+    verify(aiModel, never()).chat(any(), any());
+    ContextEvent last = agent.getContext().getEvents().get(agent.getContext().getEvents().size() - 1);
+    assertEquals("ASSERTION", last.getType());
+    assertEquals("DOM", last.getSubType());
+    assertEquals(true, last.getOutput());
+  }
+
+  @Test
+  void testAiAssertConfirmsFailingPageCheckWithModel() {
+    PageDriver driver = mock(PageDriver.class);
+    AIModel aiModel = mock(AIModel.class);
+    Agent agent = new Agent(driver, aiModel);
+    when(driver.getScreenshotBase64()).thenReturn(
+        "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mP8z8BQDwAEhQGAhKmMIQAAAABJRU5ErkJggg==");
+    when(driver.evaluate(anyString())).thenReturn(false);
+    when(aiModel.chat(any(), any())).thenReturn(ChatResponse.builder().aiMessage(AiMessage.from("true")).build());
+
+    agent.aiAssert("the Submit button is enabled");
+
+    verify(aiModel, times(1)).chat(any(), any());
+  }
 }
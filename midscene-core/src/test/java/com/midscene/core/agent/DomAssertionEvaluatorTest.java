@@ -0,0 +1,88 @@
+package com.midscene.core.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.midscene.core.agent.DomAssertionEvaluator.Verdict;
+import com.midscene.core.service.PageDriver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class DomAssertionEvaluatorTest {
+
+  private PageDriver driver;
+  private DomAssertionEvaluator evaluator;
+
+  @BeforeEach
+  void setUp() {
+    driver = mock(PageDriver.class);
+    evaluator = new DomAssertionEvaluator(driver);
+  }
+
+  private String evaluatedScript() {
+    ArgumentCaptor<String> script = ArgumentCaptor.forClass(String.class);
+    verify(driver).evaluate(script.capture());
+    return script.getValue();
+  }
+
+  @Test
+  void testQuotedTextOnPage() {
+    when(driver.evaluate(anyString())).thenReturn(true);
+
+    assertEquals(Verdict.TRUE, evaluator.evaluate("The page shows 'Order confirmed'."));
+    assertTrue(evaluatedScript().contains("innerText"));
+  }
+
+  @Test
+  void testNegatedText() {
+    when(driver.evaluate(anyString())).thenReturn(true);
+
+    assertEquals(Verdict.FALSE, evaluator.evaluate("the page does not show \"Error\""));
+  }
+
+  @Test
+  void testTextNoLongerVisible() {
+    when(driver.evaluate(anyString())).thenReturn(false);
+
+    assertEquals(Verdict.TRUE, evaluator.evaluate("'Loading...' is no longer visible"));
+  }
+
+  @Test
+  void testElementState() {
+    when(driver.evaluate(anyString())).thenReturn(true);
+
+    assertEquals(Verdict.FALSE, evaluator.evaluate("the Submit button is disabled"));
+    String script = evaluatedScript();
+    assertTrue(script.contains("normalize(\"Submit\")"));
+    assertTrue(script.contains("selectors[\"button\"]"));
+    assertTrue(script.contains("switch (\"enabled\")"));
+  }
+
+  @Test
+  void testQuotesInLabelAreEscaped() {
+    when(driver.evaluate(anyString())).thenReturn(true);
+
+    assertEquals(Verdict.TRUE, evaluator.evaluate("the page shows \"Say \"hi\"\""));
+    assertTrue(evaluatedScript().contains("normalize(\"Say \\\"hi\\\"\")"));
+  }
+
+  @Test
+  void testUnrecognisedConditionIsLeftToModel() {
+    assertEquals(Verdict.INCONCLUSIVE, evaluator.evaluate("the cart contains three items"));
+    verify(driver, never()).evaluate(anyString());
+  }
+
+  @Test
+  void testAmbiguousOrFailingCheckIsInconclusive() {
+    when(driver.evaluate(anyString())).thenReturn(null);
+    assertEquals(Verdict.INCONCLUSIVE, evaluator.evaluate("the Save button is enabled"));
+
+    when(driver.evaluate(anyString())).thenThrow(new RuntimeException("no page"));
+    assertEquals(Verdict.INCONCLUSIVE, evaluator.evaluate("the page shows 'Saved'"));
+  }
+}
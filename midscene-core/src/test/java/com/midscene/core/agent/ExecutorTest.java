@@ -0,0 +1,115 @@
+package com.midscene.core.agent;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.AIActionType;
+import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.service.PageDriver;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class ExecutorTest {
+
+  private PageDriver driver;
+  private Executor executor;
+
+  @BeforeEach
+  void setUp() {
+    driver = mock(PageDriver.class);
+    executor = new Executor(driver);
+  }
+
+  private static ActionsItem action(AIActionType type, int x, int y) {
+    Locate locate = new Locate();
+    locate.setX(x);
+    locate.setY(y);
+    ActionsItem action = new ActionsItem();
+    action.setType(type);
+    action.setLocate(locate);
+    action.setValue("value");
+    return action;
+  }
+
+  @Test
+  void testFormFillIsBatchedUpToTheSubmitClick() {
+    ActionsItem email = action(AIActionType.INPUT, 100, 200);
+    ActionsItem password = action(AIActionType.INPUT, 100, 260);
+    ActionsItem submit = action(AIActionType.CLICK, 100, 320);
+    ActionsItem next = action(AIActionType.INPUT, 100, 200);
+
+    executor.execute(List.of(email, password, submit, next));
+
+    verify(driver).executeBatch(eq(List.of(email, password, submit)), any());
+    verify(driver).type(next.getLocate(), "value");
+  }
+
+  @Test
+  void testListenerRunsRightBeforeEachAction() {
+    ActionsItem email = action(AIActionType.INPUT, 100, 200);
+    ActionsItem submit = action(AIActionType.CLICK, 100, 320);
+    InOrder inOrder = inOrder(driver);
+
+    executor.execute(List.of(email, submit), action -> driver.getUrl());
+
+    verify(driver, never()).executeBatch(anyList(), any());
+    inOrder.verify(driver).getUrl();
+    inOrder.verify(driver).type(email.getLocate(), "value");
+    inOrder.verify(driver).getUrl();
+    inOrder.verify(driver).click(submit.getLocate());
+  }
+
+  @Test
+  void testSelectorActionsAreExecutedOneByOne() {
+    ActionsItem first = new ActionsItem();
+    first.setType(AIActionType.INPUT);
+    first.setSelectorType(BySelectorType.BY_CSS);
+    first.setElementSelector("#email");
+    first.setValue("jane@example.com");
+    ActionsItem second = action(AIActionType.HOVER, 10, 10);
+
+    executor.execute(List.of(first, second));
+
+    verify(driver, never()).executeBatch(anyList(), any());
+    verify(driver).type(BySelectorType.BY_CSS, "#email", "jane@example.com");
+    verify(driver).hover(second.getLocate());
+  }
+
+  @Test
+  void testScrollToEdgeOfPage() {
+    ActionsItem scroll = new ActionsItem();
+    scroll.setType(AIActionType.SCROLL);
+    scroll.setScrollType("scrollToBottom");
+
+    executor.execute(scroll);
+
+    verify(driver).scrollToEdge((Locate) null, "bottom");
+  }
+
+  @Test
+  void testScrollByDistanceWithoutLocate() {
+    ActionsItem left = new ActionsItem();
+    left.setType(AIActionType.SCROLL);
+    left.setDirection("left");
+    ActionsItem down = new ActionsItem();
+    down.setType(AIActionType.SCROLL_DOWN);
+    down.setSelectorType(BySelectorType.BY_CSS);
+    down.setElementSelector(".results");
+    down.setDistance(600);
+
+    executor.execute(left);
+    executor.execute(down);
+
+    verify(driver).scrollBy((Locate) null, -200, 0);
+    verify(driver).scrollBy(BySelectorType.BY_CSS, ".results", 0, 600);
+  }
+}
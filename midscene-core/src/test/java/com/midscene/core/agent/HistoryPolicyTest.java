@@ -0,0 +1,62 @@
+package com.midscene.core.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HistoryPolicyTest {
+
+  private static UserMessage observation(String pageSource) {
+    return UserMessage.from(
+        TextContent.from("Plan the instruction"),
+        ImageContent.from("aW1hZ2U=", "image/png"),
+        TextContent.from(pageSource));
+  }
+
+  @Test
+  void testKeepsOnlyLatestObservation() {
+    UserMessage latest = observation("<html>latest</html>");
+    List<ChatMessage> history = new ArrayList<>(List.of(
+        SystemMessage.from("system"),
+        observation("<html>first</html>"),
+        AiMessage.from("{\"log\": \"click login\"}"),
+        UserMessage.from("Error executing plan: element not found"),
+        latest));
+
+    new HistoryPolicy().apply(history);
+
+    assertEquals(5, history.size());
+    assertEquals(HistoryPolicy.OMITTED_OBSERVATION, ((UserMessage) history.get(1)).singleText());
+    assertEquals(latest, history.get(4));
+  }
+
+  @Test
+  void testSummarizesOldTurnsWhenOverBudget() {
+    UserMessage latest = observation("<html>" + "x".repeat(4000) + "</html>");
+    List<ChatMessage> history = new ArrayList<>(List.of(
+        SystemMessage.from("system"),
+        observation("<html>first</html>"),
+        AiMessage.from("{\"log\": \"click login\"}"),
+        UserMessage.from("Error executing plan: element not found"),
+        latest));
+
+    new HistoryPolicy(1500).apply(history);
+
+    assertEquals(3, history.size());
+    assertInstanceOf(SystemMessage.class, history.get(0));
+    String summary = ((UserMessage) history.get(1)).singleText();
+    assertTrue(summary.startsWith(HistoryPolicy.SUMMARY_HEADER));
+    assertTrue(summary.contains("Plan: {\"log\": \"click login\"}"));
+    assertTrue(summary.contains("Error executing plan: element not found"));
+    assertEquals(latest, history.get(2));
+  }
+}
@@ -3,14 +3,22 @@ package com.midscene.core.agent;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.model.ModelUnavailableException;
 import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.pojo.type.AIActionType;
+import com.midscene.core.pojo.type.BySelectorType;
 import com.midscene.core.service.PageDriver;
+import java.awt.Rectangle;
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -51,7 +59,7 @@ class OrchestratorTest {
     orchestrator.execute("Click button");
 
     // Verify
-    verify(executor, times(1)).execute(action);
+    verify(executor, times(1)).execute(List.of(action), null);
   }
 
   @Test
@@ -75,7 +83,7 @@ class OrchestratorTest {
 
     // Verify
     verify(planner, times(2)).plan(any(), any(), any(), any());
-    verify(executor, times(1)).execute(action);
+    verify(executor, times(1)).execute(List.of(action), null);
   }
 
   @Test
@@ -93,7 +101,64 @@ class OrchestratorTest {
 
     assertEquals("Failed to complete instruction: Click button", exception.getMessage());
     verify(planner, times(3)).plan(any(), any(), any(), any());
-    verify(executor, never()).execute(any());
+    verify(executor, never()).execute(anyList(), any());
+  }
+
+  @Test
+  void testExecuteFailsFastWhenModelUnavailable() {
+    when(driver.getScreenshotBase64()).thenReturn("base64image");
+    when(driver.getPageSource()).thenReturn("<html></html>");
+    when(planner.plan(any(), any(), any(), any()))
+        .thenThrow(new ModelUnavailableException("circuit breaker is open"));
+
+    assertThrows(ModelUnavailableException.class, () -> orchestrator.execute("Click button"));
+
+    verify(planner, times(1)).plan(any(), any(), any(), any());
+    verify(driver, times(1)).getScreenshotBase64();
+  }
+
+  @Test
+  void testExecuteMultipleCycles() {
+    when(driver.getScreenshotBase64()).thenReturn("base64image");
+    when(driver.getPageSource()).thenReturn("<html></html>");
+
+    // First plan fills two fields and asks to observe the page again, second plan finishes
+    ActionsItem first = new ActionsItem();
+    ActionsItem second = new ActionsItem();
+    PlanningResponse firstPlan = new PlanningResponse();
+    firstPlan.setActions(List.of(first, second));
+    firstPlan.setMoreActionsNeededByInstruction(true);
+
+    ActionsItem third = new ActionsItem();
+    PlanningResponse secondPlan = new PlanningResponse();
+    secondPlan.setActions(List.of(third));
+    secondPlan.setMoreActionsNeededByInstruction(false);
+
+    when(planner.plan(any(), any(), any(), any())).thenReturn(firstPlan, secondPlan);
+
+    orchestrator.execute("Fill the form and submit");
+
+    verify(planner, times(2)).plan(any(), any(), any(), any());
+    verify(executor).execute(List.of(first, second), null);
+    verify(executor).execute(List.of(third), null);
+    verify(planner).cacheTrajectory("Fill the form and submit", List.of(first, second, third));
+  }
+
+  @Test
+  void testReplanningCycleLimit() {
+    when(driver.getScreenshotBase64()).thenReturn("base64image");
+    when(driver.getPageSource()).thenReturn("<html></html>");
+
+    PlanningResponse plan = new PlanningResponse();
+    plan.setActions(Collections.singletonList(new ActionsItem()));
+    plan.setMoreActionsNeededByInstruction(true);
+    when(planner.plan(any(), any(), any(), any())).thenReturn(plan);
+
+    orchestrator.setReplanningCycleLimit(2);
+
+    assertThrows(RuntimeException.class, () -> orchestrator.execute("Scroll forever"));
+    verify(planner, times(2)).plan(any(), any(), any(), any());
+    verify(planner, never()).cacheTrajectory(any(), any());
   }
 
   @Test
@@ -111,4 +176,46 @@ class OrchestratorTest {
     assertEquals("Answer", result);
     verify(planner).query("What is this?", "base64image");
   }
+
+  @Test
+  void testQueryReusesAnswerWhilePageIsUnchanged() throws Exception {
+    String frame = ScreenshotChangeDetectorTest.screenshot();
+    String changedFrame = ScreenshotChangeDetectorTest.screenshot(new Rectangle(300, 200, 40, 12));
+    when(driver.getScreenshotBase64()).thenReturn(frame, frame, changedFrame);
+    when(planner.query(any(), any(), eq(ModelOperation.ASSERT))).thenReturn("false", "true");
+    orchestrator.setChangeDetector(new ScreenshotChangeDetector());
+
+    assertEquals("false", orchestrator.query("Is it done?", ModelOperation.ASSERT));
+    assertEquals("false", orchestrator.query("Is it done?", ModelOperation.ASSERT));
+    assertEquals("true", orchestrator.query("Is it done?", ModelOperation.ASSERT));
+
+    verify(planner, times(2)).query(any(), any(), eq(ModelOperation.ASSERT));
+  }
+
+  @Test
+  void testStaleCachedPlanIsReplannedBeforeExecution() {
+    when(driver.getScreenshotBase64()).thenReturn("base64image");
+    when(driver.getPageSource()).thenReturn("<html></html>");
+    when(driver.evaluate(any())).thenReturn(List.of("#checkout matches 0 visible elements (0 in total)"));
+
+    ActionsItem stale = new ActionsItem();
+    stale.setType(AIActionType.CLICK);
+    stale.setElementSelector("#checkout");
+    stale.setSelectorType(BySelectorType.BY_CSS);
+    PlanningResponse cached = new PlanningResponse();
+    cached.setActions(List.of(stale));
+    cached.setFromCache(true);
+
+    ActionsItem fresh = new ActionsItem();
+    PlanningResponse replanned = new PlanningResponse();
+    replanned.setActions(List.of(fresh));
+    when(planner.plan(any(), any(), any(), any())).thenReturn(cached, replanned);
+
+    orchestrator.execute("Click checkout");
+
+    verify(planner).invalidateCache("Click checkout");
+    verify(driver, times(1)).getPageSource();
+    verify(executor, never()).execute(List.of(stale), null);
+    verify(executor).execute(List.of(fresh), null);
+  }
 }
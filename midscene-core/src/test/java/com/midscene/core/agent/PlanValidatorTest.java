@@ -0,0 +1,112 @@
+package com.midscene.core.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.pojo.type.AIActionType;
+import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.service.PageDriver;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class PlanValidatorTest {
+
+  private PageDriver driver;
+  private PlanValidator validator;
+
+  @BeforeEach
+  void setUp() {
+    driver = mock(PageDriver.class);
+    validator = new PlanValidator(driver);
+  }
+
+  private static ActionsItem selectorAction(AIActionType type, String selector) {
+    ActionsItem action = new ActionsItem();
+    action.setType(type);
+    action.setElementSelector(selector);
+    action.setSelectorType(BySelectorType.BY_CSS);
+    return action;
+  }
+
+  private static ActionsItem pointAction(AIActionType type, int x, int y) {
+    Locate locate = new Locate();
+    locate.setX(x);
+    locate.setY(y);
+    ActionsItem action = new ActionsItem();
+    action.setType(type);
+    action.setLocate(locate);
+    return action;
+  }
+
+  private static PlanningResponse plan(ActionsItem... actions) {
+    PlanningResponse plan = new PlanningResponse();
+    plan.setActions(List.of(actions));
+    return plan;
+  }
+
+  @Test
+  void testChecksAllTargetsInOneCall() {
+    when(driver.evaluate(anyString())).thenReturn(List.of());
+
+    List<String> problems = validator.validate(plan(
+        selectorAction(AIActionType.INPUT, "#email"),
+        pointAction(AIActionType.CLICK, 120, 340)));
+
+    assertTrue(problems.isEmpty());
+    ArgumentCaptor<String> script = ArgumentCaptor.forClass(String.class);
+    verify(driver, times(1)).evaluate(script.capture());
+    assertTrue(script.getValue().contains("\"selector\":\"#email\""));
+    assertTrue(script.getValue().contains("\"x\":120"));
+  }
+
+  @Test
+  void testReportsProblemsFromPage() {
+    when(driver.evaluate(anyString())).thenReturn(List.of("#email matches 2 visible elements (2 in total)"));
+
+    List<String> problems = validator.validate(plan(selectorAction(AIActionType.INPUT, "#email")));
+
+    assertEquals(List.of("#email matches 2 visible elements (2 in total)"), problems);
+  }
+
+  @Test
+  void testStopsAtFirstPageChangingAction() {
+    when(driver.evaluate(anyString())).thenReturn(List.of());
+
+    validator.validate(plan(
+        selectorAction(AIActionType.CLICK, "#next"),
+        selectorAction(AIActionType.INPUT, "#code")));
+
+    ArgumentCaptor<String> script = ArgumentCaptor.forClass(String.class);
+    verify(driver).evaluate(script.capture());
+    assertTrue(script.getValue().contains("#next"));
+    assertFalse(script.getValue().contains("#code"));
+  }
+
+  @Test
+  void testPlanWithoutTargetsSkipsPage() {
+    ActionsItem sleep = new ActionsItem();
+    sleep.setType(AIActionType.SLEEP);
+
+    assertTrue(validator.validate(plan(sleep, pointAction(AIActionType.HOVER, 5, 5))).isEmpty());
+    verify(driver, never()).evaluate(anyString());
+  }
+
+  @Test
+  void testEvaluationFailureKeepsPlan() {
+    when(driver.evaluate(anyString())).thenThrow(new RuntimeException("script error"));
+
+    assertTrue(validator.validate(plan(selectorAction(AIActionType.INPUT, "#email"))).isEmpty());
+  }
+}
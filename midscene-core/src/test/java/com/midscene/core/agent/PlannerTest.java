@@ -0,0 +1,142 @@
+package com.midscene.core.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.midscene.core.cache.TaskCache;
+import com.midscene.core.model.AIModel;
+import com.midscene.core.model.ModelOperation;
+import com.midscene.core.pojo.planning.PlanningResponse;
+import com.midscene.core.pojo.type.AIActionType;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PlannerTest {
+
+  private static final String PLAN = "{\"log\": \"click\", \"actions\": [{\"type\": \"CLICK\"}]}";
+
+  private final List<List<ChatMessage>> requests = new ArrayList<>();
+
+  private final AIModel aiModel = messages -> {
+    requests.add(new ArrayList<>(messages));
+    return ChatResponse.builder().aiMessage(AiMessage.from(PLAN)).build();
+  };
+
+  @Test
+  void testSystemPromptIsStableAcrossInstructions() {
+    Planner planner = new Planner(aiModel);
+
+    planner.plan("Click login", "image", "<html></html>", new ArrayList<>());
+    planner.plan("Open settings", "image", "<html></html>", new ArrayList<>());
+
+    SystemMessage first = assertInstanceOf(SystemMessage.class, requests.get(0).get(0));
+    SystemMessage second = assertInstanceOf(SystemMessage.class, requests.get(1).get(0));
+    assertEquals(first.text(), second.text());
+  }
+
+  @Test
+  void testActionContextIsPartOfSystemPrompt() {
+    Planner planner = new Planner(aiModel);
+    planner.setActionContext("Close the cookie banner first.");
+
+    planner.plan("Click login", "image", "<html></html>", new ArrayList<>());
+
+    SystemMessage system = assertInstanceOf(SystemMessage.class, requests.get(0).get(0));
+    assertTrue(system.text().endsWith("Close the cookie banner first.\n"));
+  }
+
+  @Test
+  void testSystemPromptWarnsThatPageSourceIsAnExcerpt() {
+    Planner planner = new Planner(aiModel);
+
+    planner.plan("Click login", "image", "<html></html>", new ArrayList<>());
+
+    String system = assertInstanceOf(SystemMessage.class, requests.get(0).get(0)).text();
+    assertTrue(system.contains("may be an excerpt"));
+    assertTrue(system.contains("Never use positional selectors"));
+  }
+
+  @Test
+  void testTruncatedPlanIsRepairedLocally() {
+    TaskCache cache = TaskCache.memoryOnly();
+    Planner planner = new Planner(messages -> {
+      requests.add(new ArrayList<>(messages));
+      String truncated = "{\"log\": \"login\", \"actions\": [{\"type\": \"CLICK\"}, "
+          + "{\"type\": \"INPUT\", \"value\": \"ad";
+      return ChatResponse.builder().aiMessage(AiMessage.from(truncated)).build();
+    }, cache);
+
+    PlanningResponse plan = planner.plan("Click login", "image", "<html></html>", new ArrayList<>());
+
+    assertEquals(1, plan.getActions().size());
+    assertEquals(AIActionType.CLICK, plan.getActions().get(0).getType());
+    assertTrue(plan.getMoreActionsNeededByInstruction());
+    assertEquals(1, requests.size());
+    assertNull(cache.get("Click login"));
+  }
+
+  @Test
+  void testUnreadablePlanIsRepairedByTextOnlyCall() {
+    List<ModelOperation> operations = new ArrayList<>();
+    AIModel model = new AIModel() {
+      @Override
+      public ChatResponse chat(List<ChatMessage> messages) {
+        return chat(messages, null);
+      }
+
+      @Override
+      public ChatResponse chat(List<ChatMessage> messages, ModelOperation operation) {
+        operations.add(operation);
+        requests.add(new ArrayList<>(messages));
+        String text = operation == ModelOperation.REPAIR ? PLAN : "I will click the login button.";
+        return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+      }
+    };
+    Planner planner = new Planner(model);
+
+    PlanningResponse plan = planner.plan("Click login", "image", "<html></html>", new ArrayList<>());
+
+    assertEquals(AIActionType.CLICK, plan.getActions().get(0).getType());
+    assertEquals(List.of(ModelOperation.PLANNING, ModelOperation.REPAIR), operations);
+    UserMessage repairRequest = assertInstanceOf(UserMessage.class, requests.get(1).get(0));
+    assertEquals(1, requests.get(1).size());
+    assertTrue(repairRequest.hasSingleText());
+  }
+
+  @Test
+  void testPageSourceIsTrimmedToTokenBudget() {
+    Planner planner = new Planner(aiModel);
+    planner.setHistoryPolicy(new HistoryPolicy(5000));
+    String pageSource = "<html><script>" + "var x = 1;".repeat(2000) + "</script><body>"
+        + "<p>Some paragraph text</p>".repeat(2000) + "</body></html>";
+
+    PlanningResponse plan = planner.plan("Click login", "image", pageSource, new ArrayList<>());
+
+    UserMessage sent = assertInstanceOf(UserMessage.class, requests.get(0).get(requests.get(0).size() - 1));
+    String sentPageSource = ((TextContent) sent.contents().get(2)).text();
+    assertTrue(sentPageSource.length() < pageSource.length());
+    assertFalse(sentPageSource.contains("<script>"));
+    assertTrue(plan.getEstimatedPromptTokens() <= 5000);
+  }
+
+  @Test
+  void testSystemPromptIsRestoredAfterHistoryWasCleared() {
+    Planner planner = new Planner(aiModel);
+    List<ChatMessage> history = new ArrayList<>();
+    history.add(UserMessage.from("Error executing plan: element not found"));
+
+    planner.plan("Click login", "image", "<html></html>", history);
+
+    assertInstanceOf(SystemMessage.class, requests.get(0).get(0));
+    assertEquals(3, requests.get(0).size());
+  }
+}
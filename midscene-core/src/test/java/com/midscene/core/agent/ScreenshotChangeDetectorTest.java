@@ -0,0 +1,119 @@
+package com.midscene.core.agent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+class ScreenshotChangeDetectorTest {
+
+  static String screenshot(Rectangle... blackAreas) throws IOException {
+    BufferedImage image = new BufferedImage(1280, 800, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(Color.WHITE);
+    graphics.fillRect(0, 0, 1280, 800);
+    graphics.setColor(Color.BLACK);
+    for (Rectangle area : blackAreas) {
+      graphics.fill(area);
+    }
+    graphics.dispose();
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", png);
+    return Base64.getEncoder().encodeToString(png.toByteArray());
+  }
+
+  @Test
+  void testIdenticalScreenshotsAreUnchanged() throws IOException {
+    ScreenshotChangeDetector detector = new ScreenshotChangeDetector();
+    String frame = screenshot(new Rectangle(10, 10, 100, 20));
+
+    assertFalse(detector.hasChanged(detector.signature(frame), detector.signature(frame)));
+  }
+
+  static String screenshot(String label) throws IOException {
+    BufferedImage image = new BufferedImage(1280, 800, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(Color.WHITE);
+    graphics.fillRect(0, 0, 1280, 800);
+    graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+    graphics.setColor(Color.DARK_GRAY);
+    graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
+    graphics.drawString(label, 300, 217);
+    graphics.dispose();
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", png);
+    return Base64.getEncoder().encodeToString(png.toByteArray());
+  }
+
+  @Test
+  void testIgnoresRenderingNoise() throws IOException {
+    ScreenshotChangeDetector detector = new ScreenshotChangeDetector();
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(screenshot())));
+    // Off-white pixels, e.g. from a slightly different anti-aliasing pass
+    for (int x = 300; x < 340; x++) {
+      image.setRGB(x, 200, 0xFCFCFC);
+    }
+    ByteArrayOutputStream png = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", png);
+
+    int[] before = detector.signature(screenshot());
+    int[] after = detector.signature(Base64.getEncoder().encodeToString(png.toByteArray()));
+
+    assertEquals(0.0, detector.difference(before, after));
+  }
+
+  @Test
+  void testDetectsChangedDigit() throws IOException {
+    ScreenshotChangeDetector detector = new ScreenshotChangeDetector();
+
+    String[][] changes = {{"Total: 0", "Total: 9"}, {"Total: 6", "Total: 8"}, {"Total: 1", "Total: 7"}};
+    for (String[] labels : changes) {
+      int[] before = detector.signature(screenshot(labels[0]));
+      int[] after = detector.signature(screenshot(labels[1]));
+
+      assertTrue(detector.hasChanged(before, after), labels[0] + " -> " + labels[1]);
+    }
+  }
+
+  @Test
+  void testDetectsChangedLabel() throws IOException {
+    ScreenshotChangeDetector detector = new ScreenshotChangeDetector();
+
+    int[] before = detector.signature(screenshot());
+    int[] after = detector.signature(screenshot(new Rectangle(300, 200, 40, 12)));
+
+    assertTrue(detector.hasChanged(before, after));
+  }
+
+  @Test
+  void testThresholdAndRegionOfInterest() throws IOException {
+    String before = screenshot();
+    String after = screenshot(new Rectangle(300, 200, 40, 12));
+
+    ScreenshotChangeDetector lenient = new ScreenshotChangeDetector(0.05);
+    assertFalse(lenient.hasChanged(lenient.signature(before), lenient.signature(after)));
+
+    ScreenshotChangeDetector header = new ScreenshotChangeDetector(0.0, new Rectangle(0, 0, 1280, 50));
+    assertFalse(header.hasChanged(header.signature(before), header.signature(after)));
+  }
+
+  @Test
+  void testUndecodableScreenshotCountsAsChanged() {
+    ScreenshotChangeDetector detector = new ScreenshotChangeDetector();
+
+    assertNull(detector.signature("not an image"));
+    assertTrue(detector.hasChanged(null, null));
+  }
+}
@@ -2,6 +2,9 @@ package com.midscene.core.config;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.midscene.core.model.GenerationProfile;
+import com.midscene.core.model.ModelOperation;
 import org.junit.jupiter.api.Test;
 
 class MidsceneConfigTest {
@@ -56,4 +59,26 @@ class MidsceneConfigTest {
 
     assertEquals("gemini-3-pro-preview", config.getModelName());
   }
+
+  @Test
+  void testShortAnswersAreUnboundedByDefault() {
+    MidsceneConfig config = MidsceneConfig.builder()
+        .apiKey("test-key")
+        .build();
+
+    assertTrue(config.getGenerationProfiles().isEmpty());
+  }
+
+  @Test
+  void testBoundShortAnswersKeepsExplicitProfiles() {
+    GenerationProfile custom = GenerationProfile.builder().maxOutputTokens(500).build();
+    MidsceneConfig config = MidsceneConfig.builder()
+        .apiKey("test-key")
+        .generationProfile(ModelOperation.BOOLEAN, custom)
+        .boundShortAnswers(true)
+        .build();
+
+    assertEquals(custom, config.getGenerationProfiles().get(ModelOperation.BOOLEAN));
+    assertEquals(20, config.getGenerationProfiles().get(ModelOperation.NUMBER).getMaxOutputTokens());
+  }
 }
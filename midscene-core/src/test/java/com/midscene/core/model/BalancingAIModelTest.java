@@ -0,0 +1,98 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BalancingAIModelTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+  private static AIModel answering(String text, AtomicInteger calls) {
+    return messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    };
+  }
+
+  @Test
+  void testRetriesRateLimitedRequestOnAnotherEndpoint() {
+    AtomicInteger throttledCalls = new AtomicInteger();
+    AtomicInteger healthyCalls = new AtomicInteger();
+    AIModel throttled = messages -> {
+      throttledCalls.incrementAndGet();
+      throw new RateLimitException("429 Too Many Requests");
+    };
+    BalancingAIModel model = new BalancingAIModel(List.of(throttled, answering("ok", healthyCalls)), 60000);
+
+    assertEquals("ok", model.chat(messages).aiMessage().text());
+    assertEquals("ok", model.chat(messages).aiMessage().text());
+    assertEquals(1, throttledCalls.get());
+    assertEquals(2, healthyCalls.get());
+    assertEquals(1, model.getHealthyEndpointCount());
+  }
+
+  @Test
+  void testEjectsFailingEndpointForCooldown() {
+    AtomicInteger failingCalls = new AtomicInteger();
+    AtomicInteger healthyCalls = new AtomicInteger();
+    AIModel failing = messages -> {
+      failingCalls.incrementAndGet();
+      throw new TimeoutException("read timed out");
+    };
+    BalancingAIModel model = new BalancingAIModel(List.of(failing, answering("ok", healthyCalls)), 60000);
+
+    assertThrows(TimeoutException.class, () -> model.chat(messages));
+    for (int i = 0; i < 3; i++) {
+      model.chat(messages);
+    }
+
+    assertEquals(1, failingCalls.get());
+    assertEquals(3, healthyCalls.get());
+  }
+
+  @Test
+  void testReadmitsEndpointAfterCooldown() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel flaky = messages -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new TimeoutException("read timed out");
+      }
+      return ChatResponse.builder().aiMessage(AiMessage.from("recovered")).build();
+    };
+    BalancingAIModel model = new BalancingAIModel(List.of(flaky), 10);
+
+    assertThrows(TimeoutException.class, () -> model.chat(messages));
+    Thread.sleep(20);
+
+    assertEquals("recovered", model.chat(messages).aiMessage().text());
+    assertEquals(1, model.getHealthyEndpointCount());
+  }
+
+  @Test
+  void testKeepsEndpointOnNonTransientError() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel rejecting = messages -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new IllegalArgumentException("invalid request");
+      }
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+    AtomicInteger otherCalls = new AtomicInteger();
+    BalancingAIModel model = new BalancingAIModel(List.of(rejecting, answering("other", otherCalls)), 60000);
+
+    assertThrows(IllegalArgumentException.class, () -> model.chat(messages));
+
+    assertEquals(2, model.getHealthyEndpointCount());
+    assertEquals("ok", model.chat(messages).aiMessage().text());
+    assertEquals(0, otherCalls.get());
+  }
+}
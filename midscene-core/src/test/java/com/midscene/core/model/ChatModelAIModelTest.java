@@ -0,0 +1,61 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class ChatModelAIModelTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("Is the button visible?"));
+
+  @Test
+  void testAppliesProfileOfOperation() {
+    ChatModel chatModel = mock(ChatModel.class);
+    when(chatModel.chat(any(ChatRequest.class)))
+        .thenReturn(ChatResponse.builder().aiMessage(AiMessage.from("true")).build());
+    ChatModelAIModel model = new ChatModelAIModel(chatModel) {
+    };
+    model.setGenerationProfiles(Map.of(ModelOperation.BOOLEAN, GenerationProfile.builder()
+        .maxOutputTokens(10)
+        .temperature(0.0)
+        .stopSequences(List.of("\n"))
+        .build()));
+
+    model.chat(messages, ModelOperation.BOOLEAN);
+
+    ArgumentCaptor<ChatRequest> request = ArgumentCaptor.forClass(ChatRequest.class);
+    verify(chatModel).chat(request.capture());
+    assertEquals(messages, request.getValue().messages());
+    assertEquals(10, request.getValue().maxOutputTokens());
+    assertEquals(0.0, request.getValue().temperature());
+    assertEquals(List.of("\n"), request.getValue().stopSequences());
+  }
+
+  @Test
+  void testUsesProviderDefaultsWithoutProfile() {
+    ChatModel chatModel = mock(ChatModel.class);
+    when(chatModel.chat(any(ChatRequest.class)))
+        .thenReturn(ChatResponse.builder().aiMessage(AiMessage.from("{}")).build());
+    ChatModelAIModel model = new ChatModelAIModel(chatModel) {
+    };
+
+    model.chat(messages, ModelOperation.PLANNING);
+
+    ArgumentCaptor<ChatRequest> request = ArgumentCaptor.forClass(ChatRequest.class);
+    verify(chatModel).chat(request.capture());
+    assertNull(request.getValue().maxOutputTokens());
+  }
+}
@@ -0,0 +1,83 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CoalescingAIModelTest {
+
+  @Test
+  void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    ChatResponse response = ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    AIModel delegate = messages -> {
+      calls.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return response;
+    };
+
+    CoalescingAIModel first = new CoalescingAIModel(delegate, "test-shared");
+    CoalescingAIModel second = new CoalescingAIModel(delegate, "test-shared");
+    List<ChatMessage> messages = List.of(UserMessage.from("Click login"));
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<ChatResponse> a = pool.submit(() -> first.chat(messages));
+      while (CoalescingAIModel.inFlightCount() == 0) {
+        Thread.sleep(5);
+      }
+      Future<ChatResponse> b = pool.submit(() -> second.chat(List.of(UserMessage.from("Click login"))));
+      Thread.sleep(50);
+      release.countDown();
+
+      assertSame(response, a.get(5, TimeUnit.SECONDS));
+      assertSame(response, b.get(5, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void testDifferentScopesAreNotCoalesced() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel delegate = messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+    List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+    new CoalescingAIModel(delegate, "scope-a").chat(messages);
+    new CoalescingAIModel(delegate, "scope-b").chat(messages);
+
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testFailureIsPropagated() {
+    AIModel delegate = messages -> {
+      throw new IllegalStateException("provider down");
+    };
+    CoalescingAIModel model = new CoalescingAIModel(delegate, "test-failure");
+
+    assertThrows(IllegalStateException.class, () -> model.chat(List.of(UserMessage.from("hello"))));
+    assertEquals(0, CoalescingAIModel.inFlightCount());
+  }
+}
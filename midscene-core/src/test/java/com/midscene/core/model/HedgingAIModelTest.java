@@ -0,0 +1,111 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class HedgingAIModelTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+  private final HedgingPolicy policy = HedgingPolicy.builder()
+      .minDelayMs(50)
+      .initialDelayMs(50)
+      .maxDelayMs(1000)
+      .build();
+
+  private static AIModel answering(String text, long delayMs) {
+    return messages -> {
+      try {
+        Thread.sleep(delayMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+      return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    };
+  }
+
+  @Test
+  void testFastPrimaryIsNotHedged() {
+    HedgingAIModel model = new HedgingAIModel(answering("primary", 0), answering("backup", 0), policy);
+
+    assertEquals("primary", model.chat(messages).aiMessage().text());
+    assertEquals(1, model.getStats().getRequests());
+    assertEquals(0, model.getStats().getHedged());
+  }
+
+  @Test
+  void testSlowPrimaryIsHedgedAndCancelled() throws InterruptedException {
+    CountDownLatch primaryInterrupted = new CountDownLatch(1);
+    AIModel slowPrimary = messages -> {
+      try {
+        Thread.sleep(5000);
+      } catch (InterruptedException e) {
+        primaryInterrupted.countDown();
+      }
+      return ChatResponse.builder().aiMessage(AiMessage.from("primary")).build();
+    };
+    HedgingAIModel model = new HedgingAIModel(slowPrimary, answering("backup", 0), policy);
+
+    assertEquals("backup", model.chat(messages).aiMessage().text());
+    assertEquals(1, model.getStats().getHedged());
+    assertEquals(1, model.getStats().getBackupWins());
+    assertTrue(primaryInterrupted.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testFailedPrimaryFallsBackToBackup() {
+    AIModel failing = messages -> {
+      throw new IllegalStateException("primary down");
+    };
+    HedgingAIModel model = new HedgingAIModel(failing, answering("backup", 0), policy);
+
+    assertEquals("backup", model.chat(messages).aiMessage().text());
+    assertEquals(1, model.getStats().getFallbacks());
+    assertEquals(0, model.getStats().getHedged());
+  }
+
+  @Test
+  void testFailsWhenBothModelsFail() {
+    AIModel slowFailing = messages -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      throw new IllegalStateException("primary down");
+    };
+    AIModel failing = messages -> {
+      throw new IllegalStateException("backup down");
+    };
+    HedgingAIModel model = new HedgingAIModel(slowFailing, failing, policy);
+
+    assertThrows(IllegalStateException.class, () -> model.chat(messages));
+  }
+
+  @Test
+  void testDelayAdaptsToObservedLatencies() {
+    HedgingPolicy adaptive = HedgingPolicy.builder()
+        .minDelayMs(1)
+        .initialDelayMs(500)
+        .minSamples(3)
+        .build();
+    HedgingAIModel model = new HedgingAIModel(answering("primary", 0), answering("backup", 0), adaptive);
+    assertEquals(500, model.currentDelayMs());
+
+    for (int i = 0; i < 3; i++) {
+      model.chat(messages);
+    }
+
+    assertTrue(model.currentDelayMs() < 500);
+  }
+}
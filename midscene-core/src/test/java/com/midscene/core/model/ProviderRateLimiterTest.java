@@ -0,0 +1,139 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ProviderRateLimiterTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+  @Test
+  void testSharesLimiterPerScope() {
+    RateLimitPolicy policy = RateLimitPolicy.builder().build();
+
+    assertSame(ProviderRateLimiter.forScope("test-scope", policy), ProviderRateLimiter.forScope("test-scope", policy));
+  }
+
+  @Test
+  void testTimesOutWhenConcurrencyLimitIsReached() {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder()
+        .initialConcurrency(1)
+        .maxWaitMs(50)
+        .build());
+
+    limiter.acquire("agent-1", 10);
+
+    assertEquals(1, limiter.getInFlight());
+    assertThrows(IllegalStateException.class, () -> limiter.acquire("agent-2", 10));
+  }
+
+  @Test
+  void testRequestsPerMinuteBucket() {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder()
+        .requestsPerMinute(1)
+        .maxWaitMs(50)
+        .build());
+
+    limiter.acquire("agent-1", 10);
+    limiter.onSuccess(10, 10, 10);
+
+    assertThrows(IllegalStateException.class, () -> limiter.acquire("agent-1", 10));
+  }
+
+  @Test
+  void testRateLimitHalvesConcurrencyAndSuccessGrowsIt() {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder().initialConcurrency(8).build());
+    AIModel throttled = messages -> {
+      throw new RateLimitException("429 Too Many Requests");
+    };
+    RateLimitedAIModel model = new RateLimitedAIModel(throttled, limiter, "agent-1");
+
+    assertThrows(RateLimitException.class, () -> model.chat(messages));
+    assertEquals(4, limiter.getConcurrencyLimit());
+    assertEquals(0, limiter.getInFlight());
+
+    RateLimitedAIModel healthy = new RateLimitedAIModel(
+        m -> ChatResponse.builder().aiMessage(AiMessage.from("ok")).build(), limiter, "agent-1");
+    for (int i = 0; i < 10; i++) {
+      healthy.chat(messages);
+    }
+    assertTrue(limiter.getConcurrencyLimit() > 4);
+  }
+
+  @Test
+  void testComparesLatencyPerOperation() {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder().initialConcurrency(4).build());
+
+    limiter.acquire("agent-1", 10);
+    limiter.onSuccess(ModelOperation.BOOLEAN, 100, 10, 10);
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire("agent-1", 10);
+      limiter.onSuccess(ModelOperation.PLANNING, 5000, 10, 10);
+    }
+
+    assertTrue(limiter.getConcurrencyLimit() > 4);
+  }
+
+  @Test
+  void testLatencyBaselineFollowsLastingSlowdown() {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder().initialConcurrency(4).build());
+    limiter.acquire("agent-1", 10);
+    limiter.onSuccess(ModelOperation.PLANNING, 100, 10, 10);
+    for (int i = 0; i < 30; i++) {
+      limiter.acquire("agent-1", 10);
+      limiter.onSuccess(ModelOperation.PLANNING, 1000, 10, 10);
+    }
+
+    assertTrue(limiter.getConcurrencyLimit() > 4);
+  }
+
+  @Test
+  void testKeepsExistingPolicyForScope() {
+    ProviderRateLimiter limiter = ProviderRateLimiter.forScope("policy-scope",
+        RateLimitPolicy.builder().initialConcurrency(2).build());
+
+    ProviderRateLimiter other = ProviderRateLimiter.forScope("policy-scope",
+        RateLimitPolicy.builder().initialConcurrency(8).build());
+
+    assertSame(limiter, other);
+    assertEquals(2, other.getConcurrencyLimit());
+  }
+
+  @Test
+  void testServesClientsRoundRobin() throws InterruptedException {
+    ProviderRateLimiter limiter = new ProviderRateLimiter(RateLimitPolicy.builder().initialConcurrency(1).build());
+    limiter.acquire("blocker", 10);
+
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(3);
+    for (String client : List.of("agent-1", "agent-1", "agent-2")) {
+      Thread thread = new Thread(() -> {
+        limiter.acquire(client, 10);
+        order.add(client);
+        limiter.onSuccess(1000, 10, 10);
+        done.countDown();
+      });
+      thread.start();
+      // Make sure tickets are queued in a deterministic order
+      Thread.sleep(50);
+    }
+
+    limiter.onSuccess(1000, 10, 10);
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(List.of("agent-1", "agent-2", "agent-1"), order);
+  }
+}
@@ -0,0 +1,112 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ImageContent;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RecordReplayAIModelTest {
+
+  @TempDir
+  Path tempDir;
+
+  private final AIModel offline = messages -> {
+    throw new IllegalStateException("network call during replay");
+  };
+
+  private static List<ChatMessage> request(String screenshot) {
+    return List.of(UserMessage.from(
+        TextContent.from("What is the price?"),
+        ImageContent.from(screenshot, "image/png")));
+  }
+
+  @Test
+  void testRecordThenReplayWithoutNetwork() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel online = messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder()
+          .aiMessage(AiMessage.from("$100"))
+          .tokenUsage(new TokenUsage(1200, 5))
+          .build();
+    };
+
+    new RecordReplayAIModel(online, tempDir, RecordReplayAIModel.Mode.RECORD).chat(request("aW1hZ2U="));
+    assertEquals(1, calls.get());
+
+    ChatResponse replayed = new RecordReplayAIModel(offline, tempDir, RecordReplayAIModel.Mode.REPLAY)
+        .chat(request("aW1hZ2U="));
+
+    assertEquals("$100", replayed.aiMessage().text());
+    assertEquals(1200, replayed.tokenUsage().inputTokenCount());
+    assertEquals(5, replayed.tokenUsage().outputTokenCount());
+  }
+
+  @Test
+  void testDifferentScreenshotIsNotReplayed() {
+    AIModel online = messages -> ChatResponse.builder().aiMessage(AiMessage.from("$100")).build();
+    new RecordReplayAIModel(online, tempDir, RecordReplayAIModel.Mode.RECORD).chat(request("aW1hZ2U="));
+
+    RecordReplayAIModel replay = new RecordReplayAIModel(offline, tempDir, RecordReplayAIModel.Mode.REPLAY);
+
+    assertThrows(IllegalStateException.class, () -> replay.chat(request("b3RoZXI=")));
+  }
+
+  @Test
+  void testPassthroughNeverRecords() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel online = messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+    RecordReplayAIModel model = new RecordReplayAIModel(online, tempDir, RecordReplayAIModel.Mode.PASSTHROUGH);
+
+    model.chat(request("aW1hZ2U="));
+    model.chat(request("aW1hZ2U="));
+
+    assertEquals(2, calls.get());
+    assertThrows(IllegalStateException.class,
+        () -> new RecordReplayAIModel(offline, tempDir, RecordReplayAIModel.Mode.REPLAY).chat(request("aW1hZ2U=")));
+  }
+
+  @Test
+  void testReplayMissNeverCallsModel() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel online = messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+
+    RecordReplayAIModel replay = new RecordReplayAIModel(online, tempDir, RecordReplayAIModel.Mode.REPLAY);
+
+    assertThrows(IllegalStateException.class, () -> replay.chat(request("aW1hZ2U=")));
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void testRecordMissingCallsModelOnlyOnMiss() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel online = messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+    RecordReplayAIModel model = new RecordReplayAIModel(online, tempDir, RecordReplayAIModel.Mode.RECORD_MISSING);
+
+    model.chat(request("aW1hZ2U="));
+    model.chat(request("aW1hZ2U="));
+
+    assertEquals(1, calls.get());
+    assertEquals("ok", new RecordReplayAIModel(offline, tempDir, RecordReplayAIModel.Mode.REPLAY)
+        .chat(request("aW1hZ2U=")).aiMessage().text());
+  }
+}
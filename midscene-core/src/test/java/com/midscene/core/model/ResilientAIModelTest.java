@@ -0,0 +1,117 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ResilientAIModelTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+  private final ResiliencePolicy policy = ResiliencePolicy.builder()
+      .maxAttempts(3)
+      .initialBackoffMs(1)
+      .maxBackoffMs(5)
+      .failureThreshold(3)
+      .openDurationMs(50)
+      .build();
+
+  private static AIModel failingTimes(int failures, AtomicInteger calls) {
+    return messages -> {
+      if (calls.incrementAndGet() <= failures) {
+        throw new TimeoutException("read timed out");
+      }
+      return ChatResponse.builder().aiMessage(AiMessage.from("ok")).build();
+    };
+  }
+
+  @Test
+  void testRetriesTransientErrors() {
+    AtomicInteger calls = new AtomicInteger();
+    ResilientAIModel model = new ResilientAIModel(failingTimes(2, calls), policy, new CircuitBreaker(3, 50));
+
+    assertEquals("ok", model.chat(messages).aiMessage().text());
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void testDoesNotRetryNonTransientErrors() {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel invalid = messages -> {
+      calls.incrementAndGet();
+      throw new IllegalArgumentException("invalid request");
+    };
+    ResilientAIModel model = new ResilientAIModel(invalid, policy, new CircuitBreaker(3, 50));
+
+    assertThrows(IllegalArgumentException.class, () -> model.chat(messages));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testCircuitOpensAndFailsFast() {
+    AtomicInteger calls = new AtomicInteger();
+    CircuitBreaker breaker = new CircuitBreaker(3, 60000);
+    ResilientAIModel model = new ResilientAIModel(failingTimes(Integer.MAX_VALUE, calls), policy, breaker);
+
+    assertThrows(ModelUnavailableException.class, () -> model.chat(messages));
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    assertThrows(ModelUnavailableException.class, () -> model.chat(messages));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  void testHalfOpenTrialClosesCircuit() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    CircuitBreaker breaker = new CircuitBreaker(3, 20);
+    ResilientAIModel model = new ResilientAIModel(failingTimes(3, calls), policy, breaker);
+
+    assertThrows(ModelUnavailableException.class, () -> model.chat(messages));
+    Thread.sleep(30);
+
+    assertEquals("ok", model.chat(messages).aiMessage().text());
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void testNonTransientErrorDuringHalfOpenTrialClosesCircuit() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    AIModel model = messages -> {
+      if (calls.incrementAndGet() <= 3) {
+        throw new TimeoutException("read timed out");
+      }
+      throw new IllegalArgumentException("invalid request");
+    };
+    CircuitBreaker breaker = new CircuitBreaker(3, 20);
+    ResilientAIModel resilient = new ResilientAIModel(model, policy, breaker);
+
+    assertThrows(ModelUnavailableException.class, () -> resilient.chat(messages));
+    Thread.sleep(30);
+
+    assertThrows(IllegalArgumentException.class, () -> resilient.chat(messages));
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertThrows(IllegalArgumentException.class, () -> resilient.chat(messages));
+    assertEquals(5, calls.get());
+  }
+
+  @Test
+  void testSharedBreakerKeepsFirstPolicy() {
+    CircuitBreaker breaker = CircuitBreaker.forScope("breaker-policy-scope",
+        ResiliencePolicy.builder().failureThreshold(1).build());
+
+    CircuitBreaker other = CircuitBreaker.forScope("breaker-policy-scope",
+        ResiliencePolicy.builder().failureThreshold(10).build());
+    other.onFailure();
+
+    assertSame(breaker, other);
+    assertEquals(CircuitBreaker.State.OPEN, other.getState());
+  }
+}
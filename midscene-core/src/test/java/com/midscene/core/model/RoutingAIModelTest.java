@@ -0,0 +1,77 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RoutingAIModelTest {
+
+  private final List<ChatMessage> messages = List.of(UserMessage.from("hello"));
+
+  private static AIModel answering(String text, AtomicInteger calls) {
+    return messages -> {
+      calls.incrementAndGet();
+      return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    };
+  }
+
+  @Test
+  void testRoutesOperationToDedicatedModel() {
+    AtomicInteger strongCalls = new AtomicInteger();
+    AtomicInteger cheapCalls = new AtomicInteger();
+    RoutingAIModel router = new RoutingAIModel(answering("strong", strongCalls),
+        Map.of(ModelOperation.QUERY, answering("cheap", cheapCalls)));
+
+    assertEquals("cheap", router.chat(messages, ModelOperation.QUERY).aiMessage().text());
+    assertEquals("strong", router.chat(messages, ModelOperation.PLANNING).aiMessage().text());
+    assertEquals(1, strongCalls.get());
+    assertEquals(1, cheapCalls.get());
+  }
+
+  @Test
+  void testEscalatesWhenJsonCannotBeParsed() {
+    AtomicInteger strongCalls = new AtomicInteger();
+    AtomicInteger cheapCalls = new AtomicInteger();
+    RoutingAIModel router = new RoutingAIModel(answering("{\"found\": true}", strongCalls),
+        Map.of(ModelOperation.LOCATE, answering("I think it is the blue button", cheapCalls)));
+
+    ChatResponse response = router.chat(messages, ModelOperation.LOCATE);
+
+    assertEquals("{\"found\": true}", response.aiMessage().text());
+    assertEquals(1, cheapCalls.get());
+    assertEquals(1, strongCalls.get());
+    assertEquals(1, router.getEscalationCount());
+  }
+
+  @Test
+  void testKeepsLenientJsonWrappedInProse() {
+    AtomicInteger strongCalls = new AtomicInteger();
+    AtomicInteger cheapCalls = new AtomicInteger();
+    String answer = "Here it is: {found: true, 'reason': 'matches {label}'} // done\nLet me know if you need more }";
+    RoutingAIModel router = new RoutingAIModel(answering("{\"found\": true}", strongCalls),
+        Map.of(ModelOperation.LOCATE, answering(answer, cheapCalls)));
+
+    assertEquals(answer, router.chat(messages, ModelOperation.LOCATE).aiMessage().text());
+    assertEquals(0, strongCalls.get());
+    assertEquals(0, router.getEscalationCount());
+  }
+
+  @Test
+  void testEscalatesWhenRoutedModelFails() {
+    AtomicInteger strongCalls = new AtomicInteger();
+    AIModel failing = messages -> {
+      throw new IllegalStateException("model overloaded");
+    };
+    RoutingAIModel router = new RoutingAIModel(answering("true", strongCalls),
+        Map.of(ModelOperation.ASSERT, failing));
+
+    assertEquals("true", router.chat(messages, ModelOperation.ASSERT).aiMessage().text());
+    assertEquals(1, strongCalls.get());
+  }
+}
@@ -0,0 +1,54 @@
+package com.midscene.core.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.midscene.core.config.ModelProvider;
+import dev.langchain4j.data.message.ImageContent;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class TokenEstimatorTest {
+
+  private static ImageContent png(int width, int height) {
+    ByteBuffer header = ByteBuffer.allocate(33);
+    header.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R'});
+    header.putInt(width).putInt(height);
+    return ImageContent.from(Base64.getEncoder().encodeToString(header.array()), "image/png");
+  }
+
+  @Test
+  void testEstimatesTextLikeWordPieces() {
+    TokenEstimator estimator = new TokenEstimator(TokenEstimator.Family.OPENAI);
+
+    assertEquals(0, estimator.estimateText(""));
+    assertEquals(2, estimator.estimateText("hello world"));
+    assertEquals(8, estimator.estimateText("<div id=\"a\">"));
+  }
+
+  @Test
+  void testScalesTextPerFamily() {
+    String text = "Click the login button and type the user name into the first field.";
+
+    int openAi = new TokenEstimator(TokenEstimator.Family.OPENAI).estimateText(text);
+    int anthropic = new TokenEstimator(TokenEstimator.Family.ANTHROPIC).estimateText(text);
+
+    assertTrue(anthropic > openAi);
+  }
+
+  @Test
+  void testEstimatesImagesFromPngHeader() {
+    ImageContent screenshot = png(1280, 800);
+
+    assertEquals(1105, new TokenEstimator(TokenEstimator.Family.OPENAI).estimateImage(screenshot));
+    assertEquals(1366, new TokenEstimator(TokenEstimator.Family.ANTHROPIC).estimateImage(screenshot));
+    assertEquals(1032, new TokenEstimator(TokenEstimator.Family.GEMINI).estimateImage(screenshot));
+  }
+
+  @Test
+  void testMapsProvidersToFamilies() {
+    assertEquals(TokenEstimator.Family.OPENAI, TokenEstimator.forProvider(ModelProvider.AZURE_OPEN_AI).getFamily());
+    assertEquals(TokenEstimator.Family.ANTHROPIC, TokenEstimator.forProvider(ModelProvider.ANTHROPIC).getFamily());
+    assertEquals(TokenEstimator.Family.GENERIC, TokenEstimator.forProvider(ModelProvider.OLLAMA).getFamily());
+  }
+}
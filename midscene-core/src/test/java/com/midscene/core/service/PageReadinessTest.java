@@ -0,0 +1,53 @@
+package com.midscene.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PageReadinessTest {
+
+  @Test
+  void testLoadedPageIsCheckedOnlyOnce() {
+    AtomicInteger checks = new AtomicInteger();
+    PageReadiness readiness = new PageReadiness(() -> {
+      checks.incrementAndGet();
+      return true;
+    });
+
+    readiness.awaitReady();
+    readiness.awaitReady();
+
+    assertEquals(1, checks.get());
+    assertTrue(readiness.isReady());
+  }
+
+  @Test
+  void testInvalidatedPageIsPolledUntilLoaded() {
+    AtomicInteger checks = new AtomicInteger();
+    PageReadiness readiness = new PageReadiness(() -> checks.incrementAndGet() == 1 || checks.get() >= 4);
+    readiness.setPollIntervalMs(1);
+    readiness.awaitReady();
+
+    readiness.invalidate();
+    readiness.awaitReady();
+
+    assertEquals(4, checks.get());
+  }
+
+  @Test
+  void testFailingCheckGivesUpAfterTimeout() {
+    PageReadiness readiness = new PageReadiness(() -> {
+      throw new IllegalStateException("document replaced");
+    });
+    readiness.setPollIntervalMs(5);
+    readiness.setTimeoutMs(30);
+
+    long start = System.currentTimeMillis();
+    readiness.awaitReady();
+
+    assertTrue(System.currentTimeMillis() - start < 1000);
+    assertTrue(readiness.isReady());
+  }
+}
@@ -2,6 +2,7 @@ package com.midscene.core.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -31,7 +32,7 @@ class ServiceTest {
     ChatResponse response = ChatResponse.builder()
         .aiMessage(AiMessage.from(content))
         .build();
-    when(aiModel.chat(any())).thenReturn(response);
+    when(aiModel.chat(any(), any())).thenReturn(response);
   }
 
   @Test
@@ -69,6 +70,16 @@ class ServiceTest {
     assertTrue(result.getError().contains("Element not found") || result.getElement() == null);
   }
 
+  @Test
+  void testLocateElementWithoutCoordinatesFails() {
+    mockAiResponse("```json\n{\"found\": true, \"description\": \"A blue login button\"}\n```");
+
+    LocateResult result = service.locate("login button");
+
+    assertNull(result.getElement());
+    assertNotNull(result.getError());
+  }
+
   @Test
   void testExtractData() {
     String mockResponse = "{\n" +
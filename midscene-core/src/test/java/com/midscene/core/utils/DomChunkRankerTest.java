@@ -0,0 +1,62 @@
+package com.midscene.core.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class DomChunkRankerTest {
+
+  private static String page() {
+    StringBuilder html = new StringBuilder("<html><body><nav><a href=\"/home\">Home</a></nav><main>");
+    for (int i = 0; i < 50; i++) {
+      html.append("<div class=\"product\"><span>Product ").append(i).append("</span>")
+          .append("<button>Add to wishlist</button></div>");
+    }
+    html.append("<div id=\"cart\"><button id=\"checkoutButton\">Checkout</button></div>");
+    html.append("</main></body></html>");
+    return html.toString();
+  }
+
+  @Test
+  void testKeepsRelevantSubtreeWithAncestors() {
+    String html = page();
+
+    String selected = DomChunkRanker.select(html, "Click the Checkout button", 3);
+
+    assertTrue(selected.contains("<button id=\"checkoutButton\">Checkout</button>"));
+    assertTrue(selected.startsWith("<html><body><main>"));
+    assertTrue(selected.contains("<div id=\"cart\">"));
+    assertTrue(selected.endsWith("</main></body></html>"));
+    assertFalse(selected.contains("Home"));
+    assertTrue(selected.length() < html.length() / 10);
+  }
+
+  @Test
+  void testKeepsPageWithoutMatches() {
+    String html = page();
+
+    assertEquals(html, DomChunkRanker.select(html, "Open settings", 3));
+  }
+
+  @Test
+  void testKeepsSmallPage() {
+    String html = "<html><body><button>Checkout</button></body></html>";
+
+    assertEquals(html, DomChunkRanker.select(html, "Click Checkout", 20));
+  }
+
+  @Test
+  void testToleratesUnclosedElements() {
+    StringBuilder html = new StringBuilder("<html><body><ul>");
+    for (int i = 0; i < 10; i++) {
+      html.append("<li>Item ").append(i);
+    }
+    html.append("<li><input name=\"search\" placeholder=\"Search products\"></ul></body></html>");
+
+    String selected = DomChunkRanker.select(html.toString(), "Type shoes into search", 1);
+
+    assertEquals("<html><body><ul><li><input name=\"search\" placeholder=\"Search products\"></li></ul></body></html>",
+        selected);
+  }
+}
@@ -0,0 +1,60 @@
+package com.midscene.core.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class JsonRepairTest {
+
+  @Test
+  void testClosesTruncatedJson() {
+    String truncated = "{\"log\": \"typing\", \"actions\": [{\"type\": \"CLICK\"";
+
+    JsonNode node = ObjectMapper.readTree(JsonRepair.repair(truncated));
+
+    assertEquals("typing", node.get("log").asText());
+    assertEquals("CLICK", node.get("actions").get(0).get("type").asText());
+  }
+
+  @Test
+  void testClosesUnterminatedString() {
+    JsonNode node = ObjectMapper.readTree(JsonRepair.repair("{\"log\": \"typing the na"));
+
+    assertEquals("typing the na", node.get("log").asText());
+  }
+
+  @Test
+  void testDropsDanglingMember() {
+    JsonNode node = ObjectMapper.readTree(JsonRepair.repair("{\"log\": \"done\", \"sleep\":"));
+
+    assertEquals("done", node.get("log").asText());
+    assertEquals(1, node.size());
+  }
+
+  @Test
+  void testConvertsPythonLiterals() {
+    JsonNode node = ObjectMapper.readTree(
+        JsonRepair.repair("{\"moreActionsNeededByInstruction\": True, \"error\": None, \"log\": \"None left\"}"));
+
+    assertEquals(true, node.get("moreActionsNeededByInstruction").asBoolean());
+    assertEquals(true, node.get("error").isNull());
+    assertEquals("None left", node.get("log").asText());
+  }
+
+  @Test
+  void testDropsStrayClosingBrackets() {
+    JsonNode node = ObjectMapper.readTree(JsonRepair.repair("{\"actions\": []]}"));
+
+    assertEquals(0, node.get("actions").size());
+  }
+
+  @Test
+  void testFindsArraysLeftOpen() {
+    String truncated = "{\"log\": \"a [b]\", \"actions\": [{\"type\": \"INPUT\", \"value\": \"x\"";
+
+    assertEquals(Set.of("actions"), JsonRepair.openArrays(truncated));
+    assertTrue(JsonRepair.openArrays("{\"actions\": [{\"type\": \"CLICK\"}], \"log\": \"cli").isEmpty());
+  }
+}
@@ -30,6 +30,22 @@ class ObjectMapperTest {
     assertEquals(123, result.getValue());
   }
 
+  @Test
+  void testMapJsonSurroundedByProse() {
+    String json = "Here is the plan: {\"name\": \"a {curly} name\", \"value\": 1} Let me know!";
+    TestPojo result = ObjectMapper.mapResponseToClass(json, TestPojo.class);
+    assertEquals("a {curly} name", result.getName());
+    assertEquals(1, result.getValue());
+  }
+
+  @Test
+  void testMapLenientJson() {
+    String json = "{name: 'test', // the name\n \"value\": 123,}";
+    TestPojo result = ObjectMapper.mapResponseToClass(json, TestPojo.class);
+    assertEquals("test", result.getName());
+    assertEquals(123, result.getValue());
+  }
+
   @Data
   static class TestPojo {
 
@@ -0,0 +1,182 @@
+package com.midscene.core.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.midscene.core.agent.Agent;
+import com.midscene.core.model.AIModel;
+import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.service.PageDriver;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.TextContent;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ScriptPlayerCompileTest {
+
+  private static final String PLAN = "{\"log\": \"click\", \"moreActionsNeededByInstruction\": false,"
+      + " \"actions\": [{\"type\": \"CLICK\", \"locate\": {\"x\": 10, \"y\": 20}}]}";
+
+  @TempDir
+  Path tempDir;
+
+  private Path scriptPath;
+  private Path compiledPath;
+  private PageDriver driver;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    scriptPath = tempDir.resolve("script.yaml");
+    compiledPath = tempDir.resolve("script.compiled.yaml");
+    Files.writeString(scriptPath, "tasks:\n  - name: checkout\n    flow:\n      - aiAction: Click checkout\n");
+
+    driver = mock(PageDriver.class);
+    when(driver.getUrl()).thenReturn("https://shop.test/cart?session=1");
+    when(driver.getScreenshotBase64()).thenReturn("image");
+    when(driver.getPageSource()).thenReturn("<html></html>");
+    when(driver.evaluate(anyString())).thenReturn("button:Checkout");
+  }
+
+  private AIModel planningModel() {
+    return planningModel(PLAN);
+  }
+
+  private AIModel planningModel(String plan) {
+    AIModel aiModel = mock(AIModel.class);
+    when(aiModel.chat(any(), any())).thenReturn(ChatResponse.builder().aiMessage(AiMessage.from(plan)).build());
+    return aiModel;
+  }
+
+  private void targets(String first, String second) {
+    when(driver.evaluate(anyString())).thenAnswer(invocation -> {
+      String script = invocation.getArgument(0);
+      return script.contains("elementFromPoint(10, 20)") ? first
+          : script.contains("elementFromPoint(30, 40)") ? second : null;
+    });
+  }
+
+  private static Locate locate(int x, int y) {
+    Locate locate = new Locate();
+    locate.setX(x);
+    locate.setY(y);
+    return locate;
+  }
+
+  private void compile() throws IOException {
+    compile(PLAN);
+  }
+
+  private void compile(String plan) throws IOException {
+    ScriptPlayer player = new ScriptPlayer(scriptPath, new Agent(driver, planningModel(plan)));
+    player.setCompileOutput(compiledPath);
+    assertTrue(player.run().isSuccess());
+  }
+
+  @Test
+  void testCompiledRunReplaysWithoutModel() throws IOException {
+    compile();
+    assertTrue(Files.readString(compiledPath).contains("button:Checkout"));
+
+    when(driver.getUrl()).thenReturn("https://shop.test/cart?session=2");
+    AIModel replayModel = planningModel();
+    ScriptPlayer replay = new ScriptPlayer(scriptPath, new Agent(driver, replayModel));
+    replay.loadCompiledScript(compiledPath);
+
+    assertTrue(replay.run().isSuccess());
+    assertEquals(1, replay.getReplayedSteps());
+    verify(replayModel, never()).chat(any(), any());
+    Locate locate = new Locate();
+    locate.setX(10);
+    locate.setY(20);
+    verify(driver, times(2)).click(locate);
+  }
+
+  @Test
+  void testFailedCheckpointFallsBackToModel() throws IOException {
+    compile();
+
+    when(driver.evaluate(anyString())).thenReturn("button:Cancel");
+    AIModel replayModel = planningModel();
+    ScriptPlayer replay = new ScriptPlayer(scriptPath, new Agent(driver, replayModel));
+    replay.loadCompiledScript(compiledPath);
+
+    assertTrue(replay.run().isSuccess());
+    assertEquals(1, replay.getFallbackSteps());
+    verify(replayModel, times(1)).chat(any(), any());
+  }
+
+  @Test
+  void testReplayOnOtherPageFallsBackToModel() throws IOException {
+    compile();
+
+    when(driver.getUrl()).thenReturn("https://shop.test/login");
+    AIModel replayModel = planningModel();
+    ScriptPlayer replay = new ScriptPlayer(scriptPath, new Agent(driver, replayModel));
+    replay.loadCompiledScript(compiledPath);
+
+    assertTrue(replay.run().isSuccess());
+    assertEquals(0, replay.getReplayedSteps());
+    verify(replayModel, times(1)).chat(any(), any());
+  }
+
+  @Test
+  void testFailedLaterCheckpointRunsNothingBeforeFallback() throws IOException {
+    String plan = "{\"log\": \"save\", \"moreActionsNeededByInstruction\": false, \"actions\": ["
+        + "{\"type\": \"INPUT\", \"locate\": {\"x\": 10, \"y\": 20}, \"value\": \"Ada\"},"
+        + " {\"type\": \"CLICK\", \"locate\": {\"x\": 30, \"y\": 40}}]}";
+    doCallRealMethod().when(driver).executeBatch(anyList(), any());
+    targets("input:Name", "button:Save");
+    compile(plan);
+
+    targets("input:Name", "button:Cancel");
+    ScriptPlayer replay = new ScriptPlayer(scriptPath, new Agent(driver, planningModel(plan)));
+    replay.loadCompiledScript(compiledPath);
+
+    assertTrue(replay.run().isSuccess());
+    assertEquals(1, replay.getFallbackSteps());
+    // Once while compiling and once by the model, never by the aborted replay
+    verify(driver, times(2)).type(locate(10, 20), "Ada");
+  }
+
+  @Test
+  void testCheckpointFailingAfterPageChangeResumesWithModel() throws IOException {
+    String plan = "{\"log\": \"edit\", \"moreActionsNeededByInstruction\": false, \"actions\": ["
+        + "{\"type\": \"CLICK\", \"locate\": {\"x\": 10, \"y\": 20}},"
+        + " {\"type\": \"INPUT\", \"locate\": {\"x\": 30, \"y\": 40}, \"value\": \"Ada\"}]}";
+    targets("button:Edit", "input:Name");
+    compile(plan);
+
+    targets("button:Edit", "input:Email");
+    List<String> prompts = new ArrayList<>();
+    AIModel replayModel = messages -> {
+      messages.stream().filter(UserMessage.class::isInstance).map(UserMessage.class::cast)
+          .flatMap(message -> message.contents().stream()).filter(TextContent.class::isInstance)
+          .forEach(content -> prompts.add(((TextContent) content).text()));
+      return ChatResponse.builder().aiMessage(AiMessage.from("{\"actions\": []}")).build();
+    };
+    ScriptPlayer replay = new ScriptPlayer(scriptPath, new Agent(driver, replayModel));
+    replay.loadCompiledScript(compiledPath);
+
+    assertTrue(replay.run().isSuccess());
+    assertEquals(1, replay.getFallbackSteps());
+    verify(driver, times(2)).click(locate(10, 20));
+    assertTrue(prompts.stream().anyMatch(prompt -> prompt.contains("must not be repeated: click on button:Edit;")));
+  }
+}
@@ -0,0 +1,50 @@
+package com.midscene.core.yaml;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.midscene.core.agent.Agent;
+import com.midscene.core.pojo.type.ReadinessMode;
+import com.midscene.core.service.PageDriver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+
+class ScriptPlayerReadinessTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testStepReadinessOverridesScriptReadiness() throws IOException {
+    Agent agent = mock(Agent.class);
+    PageDriver driver = mock(PageDriver.class);
+    when(agent.getDriver()).thenReturn(driver);
+    when(driver.getReadinessMode()).thenReturn(ReadinessMode.NETWORK_IDLE);
+
+    Path scriptPath = tempDir.resolve("script.yaml");
+    Files.writeString(scriptPath, """
+        web:
+          waitForNetworkIdle: true
+        tasks:
+          - name: animated menu
+            flow:
+              - sleep: 1
+                readiness: VISUALLY_STABLE
+              - sleep: 1
+        """);
+
+    ScriptPlayer player = new ScriptPlayer(scriptPath, agent);
+    assertTrue(player.run().isSuccess());
+
+    InOrder order = inOrder(driver);
+    order.verify(driver).setReadinessMode(ReadinessMode.NETWORK_IDLE);
+    order.verify(driver).setReadinessMode(ReadinessMode.VISUALLY_STABLE);
+    order.verify(driver).setReadinessMode(ReadinessMode.NETWORK_IDLE);
+  }
+}
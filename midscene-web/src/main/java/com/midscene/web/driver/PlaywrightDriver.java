@@ -2,13 +2,22 @@ package com.midscene.web.driver;
 
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.MouseButton;
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.pojo.type.ReadinessMode;
+import com.midscene.core.service.DomMutationScripts;
 import com.midscene.core.service.PageDriver;
-import com.midscene.core.utils.WaitingUtils;
+import com.midscene.core.service.PageReadiness;
+import com.midscene.core.service.ReadinessScripts;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Playwright implementation of the PageDriver interface. Provides browser automation using Microsoft Playwright.
@@ -16,9 +25,22 @@ import java.util.Base64;
 public class PlaywrightDriver implements PageDriver {
 
   private final Page page;
+  private final PageReadiness readiness;
+  private ReadinessMode readinessMode = ReadinessMode.LOAD;
+  private boolean networkTrackerInstalled;
 
   public PlaywrightDriver(Page page) {
     this.page = page;
+    this.readiness = new PageReadiness(this::isPageReady);
+  }
+
+  /**
+   * Returns the page load tracker, e.g. to tune how often and how long a navigation is waited for.
+   *
+   * @return the page load tracker
+   */
+  public PageReadiness getReadiness() {
+    return readiness;
   }
 
   // ========== Page Information ==========
@@ -48,24 +70,28 @@ public class PlaywrightDriver implements PageDriver {
   public void click(Locate locate) {
     waitUntilPageLoaded();
     page.mouse().click(locate.getX(), locate.getY());
+    readiness.invalidate();
   }
 
   @Override
   public void click(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
     getLocator(selectorType, elementSelector).click();
+    readiness.invalidate();
   }
 
   @Override
   public void doubleClick(Locate locate) {
     waitUntilPageLoaded();
     page.mouse().dblclick(locate.getX(), locate.getY());
+    readiness.invalidate();
   }
 
   @Override
   public void doubleClick(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
     getLocator(selectorType, elementSelector).dblclick();
+    readiness.invalidate();
   }
 
   @Override
@@ -92,6 +118,7 @@ public class PlaywrightDriver implements PageDriver {
       Thread.currentThread().interrupt();
     }
     page.mouse().up();
+    readiness.invalidate();
   }
 
   // ========== Text Input Actions ==========
@@ -101,12 +128,14 @@ public class PlaywrightDriver implements PageDriver {
     waitUntilPageLoaded();
     page.mouse().click(locate.getX(), locate.getY());
     page.keyboard().type(text);
+    readiness.invalidate();
   }
 
   @Override
   public void type(BySelectorType selectorType, String elementSelector, String text) {
     waitUntilPageLoaded();
     getLocator(selectorType, elementSelector).fill(text);
+    readiness.invalidate();
   }
 
   @Override
@@ -128,6 +157,7 @@ public class PlaywrightDriver implements PageDriver {
   public void keyboardPress(String keyName) {
     waitUntilPageLoaded();
     page.keyboard().press(keyName);
+    readiness.invalidate();
   }
 
   @Override
@@ -135,6 +165,7 @@ public class PlaywrightDriver implements PageDriver {
     waitUntilPageLoaded();
     page.mouse().click(locate.getX(), locate.getY());
     page.keyboard().press(keyName);
+    readiness.invalidate();
   }
 
   // ========== Scroll Actions ==========
@@ -222,24 +253,86 @@ public class PlaywrightDriver implements PageDriver {
     page.mouse().up();
   }
 
+  // ========== Batch Actions ==========
+
+  /**
+   * Dispatches the actions straight to the mouse and keyboard after a single page readiness check. The input events
+   * are still sent through Playwright rather than a script evaluation, so the page sees them as trusted user input.
+   */
+  @Override
+  public void executeBatch(List<ActionsItem> actions, Consumer<ActionsItem> single) {
+    waitUntilPageLoaded();
+    for (ActionsItem action : actions) {
+      if (!dispatch(action)) {
+        single.accept(action);
+      }
+    }
+    readiness.invalidate();
+  }
+
+  private boolean dispatch(ActionsItem action) {
+    Locate locate = action.getLocate();
+    if (action.getType() == null || action.getElementSelector() != null) {
+      return false;
+    }
+    if (locate == null) {
+      if (action.getType() != AIActionType.KEYBOARD_PRESS || action.getKeyName() == null) {
+        return false;
+      }
+      page.keyboard().press(action.getKeyName());
+      return true;
+    }
+    String text = action.getValue() != null ? action.getValue() : action.getText();
+    switch (action.getType()) {
+      case CLICK, TAP -> page.mouse().click(locate.getX(), locate.getY());
+      case DOUBLE_CLICK -> page.mouse().dblclick(locate.getX(), locate.getY());
+      case RIGHT_CLICK -> page.mouse().click(locate.getX(), locate.getY(),
+          new com.microsoft.playwright.Mouse.ClickOptions().setButton(MouseButton.RIGHT));
+      case HOVER -> page.mouse().move(locate.getX(), locate.getY());
+      case TYPE_TEXT, INPUT -> {
+        if (text == null) {
+          return false;
+        }
+        page.mouse().click(locate.getX(), locate.getY());
+        page.keyboard().type(text);
+      }
+      case CLEAR_INPUT -> {
+        page.mouse().click(locate.getX(), locate.getY());
+        page.keyboard().press("Control+a");
+        page.keyboard().press("Backspace");
+      }
+      case KEYBOARD_PRESS -> {
+        if (action.getKeyName() == null) {
+          return false;
+        }
+        page.mouse().click(locate.getX(), locate.getY());
+        page.keyboard().press(action.getKeyName());
+      }
+      default -> {
+        return false;
+      }
+    }
+    return true;
+  }
+
   // ========== Navigation Actions ==========
 
   @Override
   public void navigate(String url) {
     page.navigate(url);
-    waitUntilPageLoaded();
+    waitAfterNavigation();
   }
 
   @Override
   public void reload() {
     page.reload();
-    waitUntilPageLoaded();
+    waitAfterNavigation();
   }
 
   @Override
   public void goBack() {
     page.goBack();
-    waitUntilPageLoaded();
+    waitAfterNavigation();
   }
 
   @Override
@@ -248,13 +341,68 @@ public class PlaywrightDriver implements PageDriver {
     return page.evaluate(script);
   }
 
+  @Override
+  public Object evaluate(String expression) {
+    waitUntilPageLoaded();
+    return page.evaluate(expression);
+  }
+
+  @Override
+  public boolean awaitMutations(long quietPeriodMs, long timeoutMs) {
+    waitUntilPageLoaded();
+    return Boolean.TRUE.equals(page.evaluate(DomMutationScripts.AWAIT, List.of(quietPeriodMs, timeoutMs)));
+  }
+
+  /**
+   * Sets the readiness mode. The stricter modes install the network counter as an init script, so it also sees the
+   * requests a page makes while loading.
+   */
+  @Override
+  public void setReadinessMode(ReadinessMode mode) {
+    if (mode.includes(ReadinessMode.NETWORK_IDLE) && !networkTrackerInstalled) {
+      page.addInitScript(ReadinessScripts.NETWORK_TRACKER);
+      networkTrackerInstalled = true;
+    }
+    this.readinessMode = mode;
+    readiness.invalidate();
+  }
+
+  @Override
+  public ReadinessMode getReadinessMode() {
+    return readinessMode;
+  }
+
   // ========== Private Helper Methods ==========
 
   private void waitUntilPageLoaded() {
-    WaitingUtils.waitUntilWithoutException(5, 200, () -> {
-      Object readyState = page.evaluate("document.readyState");
-      return "complete".equals(readyState);
-    }, "Wait until page loaded");
+    readiness.awaitReady();
+  }
+
+  private void waitAfterNavigation() {
+    if (readinessMode.includes(ReadinessMode.NETWORK_IDLE)) {
+      try {
+        page.waitForLoadState(LoadState.NETWORKIDLE,
+            new Page.WaitForLoadStateOptions().setTimeout(readiness.getTimeoutMs()));
+      } catch (TimeoutError e) {
+        // Pages that keep polling never reach network idle; the readiness check below has the final say
+      }
+    }
+    readiness.invalidate();
+    waitUntilPageLoaded();
+  }
+
+  private boolean isPageReady() {
+    if (!"complete".equals(page.evaluate("document.readyState"))) {
+      return false;
+    }
+    if (!readinessMode.includes(ReadinessMode.NETWORK_IDLE)) {
+      return true;
+    }
+    if (!Boolean.TRUE.equals(page.evaluate(ReadinessScripts.NETWORK_IDLE))) {
+      return false;
+    }
+    return !readinessMode.includes(ReadinessMode.VISUALLY_STABLE)
+        || Boolean.TRUE.equals(page.evaluate(ReadinessScripts.VISUALLY_STABLE));
   }
 
   private Locator getLocator(BySelectorType selectorType, String elementSelector) {
@@ -1,15 +1,25 @@
 package com.midscene.web.driver;
 
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.pojo.type.ReadinessMode;
+import com.midscene.core.service.DomMutationScripts;
 import com.midscene.core.service.PageDriver;
-import com.midscene.core.utils.WaitingUtils;
+import com.midscene.core.service.PageReadiness;
+import com.midscene.core.service.ReadinessScripts;
 import com.midscene.web.utils.ElementActions;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -20,10 +30,25 @@ import org.openqa.selenium.interactions.Actions;
  */
 public class SeleniumDriver implements PageDriver {
 
+  private static final long SCRIPT_TIMEOUT_MARGIN_MS = 1000;
+
   private final WebDriver driver;
+  private final PageReadiness readiness;
+  private ReadinessMode readinessMode = ReadinessMode.LOAD;
+  private final Map<String, WebElement> elementCache = new HashMap<>();
 
   public SeleniumDriver(WebDriver driver) {
     this.driver = driver;
+    this.readiness = new PageReadiness(this::isPageReady);
+  }
+
+  /**
+   * Returns the page load tracker, e.g. to tune how often and how long a navigation is waited for.
+   *
+   * @return the page load tracker
+   */
+  public PageReadiness getReadiness() {
+    return readiness;
   }
 
   // ========== Page Information ==========
@@ -52,58 +77,63 @@ public class SeleniumDriver implements PageDriver {
   public void click(Locate locate) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .click()
         .perform();
+    invalidatePage();
   }
 
   @Override
   public void click(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    getWebElementBySelector(selectorType, elementSelector).click();
+    withElement(selectorType, elementSelector, WebElement::click);
+    invalidatePage();
   }
 
   @Override
   public void doubleClick(Locate locate) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .doubleClick()
         .perform();
+    invalidatePage();
   }
 
   @Override
   public void doubleClick(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    WebElement element = getWebElementBySelector(selectorType, elementSelector);
-    new Actions(driver).doubleClick(element).perform();
+    withElement(selectorType, elementSelector, element -> new Actions(driver).doubleClick(element).perform());
+    invalidatePage();
   }
 
   @Override
   public void rightClick(Locate locate) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .contextClick()
         .perform();
+    invalidatePage();
   }
 
   @Override
   public void rightClick(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    WebElement element = getWebElementBySelector(selectorType, elementSelector);
-    new Actions(driver).contextClick(element).perform();
+    withElement(selectorType, elementSelector, element -> new Actions(driver).contextClick(element).perform());
+    invalidatePage();
   }
 
   @Override
   public void longPress(Locate locate, long durationMs) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .clickAndHold()
         .pause(Duration.ofMillis(durationMs))
         .release()
         .perform();
+    invalidatePage();
   }
 
   // ========== Text Input Actions ==========
@@ -112,23 +142,25 @@ public class SeleniumDriver implements PageDriver {
   public void type(Locate locate, String text) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .click()
         .sendKeys(text)
         .perform();
+    invalidatePage();
   }
 
   @Override
   public void type(BySelectorType selectorType, String elementSelector, String text) {
     waitUntilPageLoaded();
-    getWebElementBySelector(selectorType, elementSelector).sendKeys(text);
+    withElement(selectorType, elementSelector, element -> element.sendKeys(text));
+    invalidatePage();
   }
 
   @Override
   public void clearInput(Locate locate) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .click()
         .keyDown(Keys.CONTROL)
         .sendKeys("a")
@@ -140,8 +172,7 @@ public class SeleniumDriver implements PageDriver {
   @Override
   public void clearInput(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    WebElement element = getWebElementBySelector(selectorType, elementSelector);
-    element.clear();
+    withElement(selectorType, elementSelector, WebElement::clear);
   }
 
   @Override
@@ -149,6 +180,7 @@ public class SeleniumDriver implements PageDriver {
     waitUntilPageLoaded();
     Keys key = mapKeyNameToSeleniumKey(keyName);
     new Actions(driver).sendKeys(key).perform();
+    invalidatePage();
   }
 
   @Override
@@ -156,10 +188,11 @@ public class SeleniumDriver implements PageDriver {
     waitUntilPageLoaded();
     Keys key = mapKeyNameToSeleniumKey(keyName);
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .click()
         .sendKeys(key)
         .perform();
+    invalidatePage();
   }
 
   // ========== Scroll Actions ==========
@@ -175,8 +208,8 @@ public class SeleniumDriver implements PageDriver {
   @Override
   public void scrollDown(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);",
-        getWebElementBySelector(selectorType, elementSelector));
+    withElement(selectorType, elementSelector,
+        element -> ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element));
   }
 
   @Override
@@ -190,8 +223,8 @@ public class SeleniumDriver implements PageDriver {
   @Override
   public void scrollUp(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);",
-        getWebElementBySelector(selectorType, elementSelector));
+    withElement(selectorType, elementSelector,
+        element -> ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element));
   }
 
   @Override
@@ -216,15 +249,14 @@ public class SeleniumDriver implements PageDriver {
   public void hover(Locate locate) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(locate.getX(), locate.getY())
+        .moveToLocation(locate.getX(), locate.getY())
         .perform();
   }
 
   @Override
   public void hover(BySelectorType selectorType, String elementSelector) {
     waitUntilPageLoaded();
-    WebElement element = getWebElementBySelector(selectorType, elementSelector);
-    new Actions(driver).moveToElement(element).perform();
+    withElement(selectorType, elementSelector, element -> new Actions(driver).moveToElement(element).perform());
   }
 
   @Override
@@ -235,7 +267,7 @@ public class SeleniumDriver implements PageDriver {
     int dy = (to.getY() - from.getY()) / steps;
 
     Actions actions = new Actions(driver)
-        .moveByOffset(from.getX(), from.getY())
+        .moveToLocation(from.getX(), from.getY())
         .clickAndHold();
 
     for (int i = 0; i < steps; i++) {
@@ -243,17 +275,87 @@ public class SeleniumDriver implements PageDriver {
     }
 
     actions.release().perform();
+    invalidatePage();
   }
 
   @Override
   public void dragAndDrop(Locate from, Locate to) {
     waitUntilPageLoaded();
     new Actions(driver)
-        .moveByOffset(from.getX(), from.getY())
+        .moveToLocation(from.getX(), from.getY())
         .clickAndHold()
         .moveByOffset(to.getX() - from.getX(), to.getY() - from.getY())
         .release()
         .perform();
+    invalidatePage();
+  }
+
+  // ========== Batch Actions ==========
+
+  /**
+   * Composes the actions into one {@link Actions} chain, so they are sent to the browser in a single request.
+   */
+  @Override
+  public void executeBatch(List<ActionsItem> actions, Consumer<ActionsItem> single) {
+    waitUntilPageLoaded();
+    Actions chain = new Actions(driver);
+    boolean pending = false;
+    for (ActionsItem action : actions) {
+      if (appendTo(chain, action)) {
+        pending = true;
+        continue;
+      }
+      if (pending) {
+        chain.perform();
+        chain = new Actions(driver);
+        pending = false;
+      }
+      single.accept(action);
+    }
+    if (pending) {
+      chain.perform();
+    }
+    invalidatePage();
+  }
+
+  private boolean appendTo(Actions chain, ActionsItem action) {
+    Locate locate = action.getLocate();
+    if (action.getType() == null || action.getElementSelector() != null) {
+      return false;
+    }
+    if (locate == null) {
+      if (action.getType() != AIActionType.KEYBOARD_PRESS || action.getKeyName() == null) {
+        return false;
+      }
+      chain.sendKeys(mapKeyNameToSeleniumKey(action.getKeyName()));
+      return true;
+    }
+    String text = action.getValue() != null ? action.getValue() : action.getText();
+    switch (action.getType()) {
+      case CLICK, TAP -> chain.moveToLocation(locate.getX(), locate.getY()).click();
+      case DOUBLE_CLICK -> chain.moveToLocation(locate.getX(), locate.getY()).doubleClick();
+      case RIGHT_CLICK -> chain.moveToLocation(locate.getX(), locate.getY()).contextClick();
+      case HOVER -> chain.moveToLocation(locate.getX(), locate.getY());
+      case TYPE_TEXT, INPUT -> {
+        if (text == null) {
+          return false;
+        }
+        chain.moveToLocation(locate.getX(), locate.getY()).click().sendKeys(text);
+      }
+      case CLEAR_INPUT -> chain.moveToLocation(locate.getX(), locate.getY()).click()
+          .keyDown(Keys.CONTROL).sendKeys("a").keyUp(Keys.CONTROL).sendKeys(Keys.BACK_SPACE);
+      case KEYBOARD_PRESS -> {
+        if (action.getKeyName() == null) {
+          return false;
+        }
+        chain.moveToLocation(locate.getX(), locate.getY()).click()
+            .sendKeys(mapKeyNameToSeleniumKey(action.getKeyName()));
+      }
+      default -> {
+        return false;
+      }
+    }
+    return true;
   }
 
   // ========== Navigation Actions ==========
@@ -261,39 +363,139 @@ public class SeleniumDriver implements PageDriver {
   @Override
   public void navigate(String url) {
     driver.get(url);
+    invalidatePage();
     waitUntilPageLoaded();
   }
 
   @Override
   public void reload() {
     driver.navigate().refresh();
+    invalidatePage();
     waitUntilPageLoaded();
   }
 
   @Override
   public void goBack() {
     driver.navigate().back();
+    invalidatePage();
     waitUntilPageLoaded();
   }
 
+  /**
+   * Runs a script that may change the page, so cached elements are forgotten afterwards.
+   */
   @Override
   public Object executeScript(String script) {
+    Object result = runScript(script);
+    invalidatePage();
+    return result;
+  }
+
+  /**
+   * Evaluates an expression of the driver's own reads and scrolls, which keep the elements in place.
+   */
+  @Override
+  public Object evaluate(String expression) {
+    return runScript("return " + expression + ";");
+  }
+
+  @Override
+  public void observeMutations() {
+    runScript(DomMutationScripts.OBSERVE);
+  }
+
+  @Override
+  public boolean awaitMutations(long quietPeriodMs, long timeoutMs) {
     waitUntilPageLoaded();
-    return ((JavascriptExecutor) driver).executeScript(script);
+    WebDriver.Timeouts timeouts = driver.manage().timeouts();
+    Duration previousTimeout = timeouts.getScriptTimeout();
+    timeouts.scriptTimeout(Duration.ofMillis(timeoutMs + SCRIPT_TIMEOUT_MARGIN_MS));
+    try {
+      Object changed = ((JavascriptExecutor) driver).executeAsyncScript(
+          "(" + DomMutationScripts.AWAIT + ")([arguments[0], arguments[1]]).then(arguments[arguments.length - 1]);",
+          quietPeriodMs, timeoutMs);
+      return Boolean.TRUE.equals(changed);
+    } finally {
+      timeouts.scriptTimeout(previousTimeout);
+    }
+  }
+
+  @Override
+  public void setReadinessMode(ReadinessMode mode) {
+    this.readinessMode = mode;
+    readiness.invalidate();
+  }
+
+  @Override
+  public ReadinessMode getReadinessMode() {
+    return readinessMode;
   }
 
   // ========== Private Helper Methods ==========
 
   public void waitUntilPageLoaded() {
-    WaitingUtils.waitUntilWithoutException(2, 2000, () -> ElementActions.isPageLoaded.apply(driver),
-        "Wait until page loaded");
+    readiness.awaitReady();
+  }
+
+  private Object runScript(String script) {
+    waitUntilPageLoaded();
+    return ((JavascriptExecutor) driver).executeScript(script);
+  }
+
+  /**
+   * Forgets the load state and the cached elements after an action that may have changed or replaced the page. A
+   * cached element may still be attached but no longer be the one its selector matches.
+   */
+  private void invalidatePage() {
+    elementCache.clear();
+    readiness.invalidate();
+  }
+
+  /**
+   * Checks the page against the readiness mode. Selenium cannot run scripts before the page's own, so the network
+   * counter is installed by the first check on each document.
+   */
+  private boolean isPageReady() {
+    if (!ElementActions.isPageLoaded.apply(driver)) {
+      return false;
+    }
+    if (!readinessMode.includes(ReadinessMode.NETWORK_IDLE)) {
+      return true;
+    }
+    JavascriptExecutor js = (JavascriptExecutor) driver;
+    if (!Boolean.TRUE.equals(js.executeScript("return " + ReadinessScripts.NETWORK_IDLE + ";"))) {
+      return false;
+    }
+    return !readinessMode.includes(ReadinessMode.VISUALLY_STABLE) || Boolean.TRUE.equals(js.executeAsyncScript(
+        "(" + ReadinessScripts.VISUALLY_STABLE + ")().then(arguments[arguments.length - 1]);"));
   }
 
+  /**
+   * Finds the element matching the selector. Elements are cached until the next action that may change the page and
+   * reused while they stay attached to the document; see {@link #withElement} for how a detached element is replaced.
+   */
   public WebElement getWebElementBySelector(BySelectorType selectorType, String elementSelector) {
-    return switch (selectorType) {
+    return elementCache.computeIfAbsent(cacheKey(selectorType, elementSelector), key -> switch (selectorType) {
       case BY_XPATH -> driver.findElement(By.xpath(elementSelector));
       case BY_CSS -> driver.findElement(By.cssSelector(elementSelector));
-    };
+    });
+  }
+
+  /**
+   * Runs an operation on the element matching the selector. If the cached element has been detached from the
+   * document, it is found again and the operation retried once.
+   */
+  private void withElement(BySelectorType selectorType, String elementSelector, Consumer<WebElement> operation) {
+    try {
+      operation.accept(getWebElementBySelector(selectorType, elementSelector));
+    } catch (StaleElementReferenceException e) {
+      elementCache.remove(cacheKey(selectorType, elementSelector));
+      operation.accept(getWebElementBySelector(selectorType, elementSelector));
+    }
+  }
+
+  private static String cacheKey(BySelectorType selectorType, String elementSelector) {
+    return selectorType + ":" + elementSelector;
   }
 
   /**
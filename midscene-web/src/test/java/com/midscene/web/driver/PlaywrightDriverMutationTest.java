@@ -0,0 +1,76 @@
+package com.midscene.web.driver;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the mutation scripts in a real browser. Skipped when Chromium cannot be launched.
+ */
+class PlaywrightDriverMutationTest {
+
+  private static final String SPINNER = "<div id='spinner'></div><div id='banner' style='display: none'>Saved</div>"
+      + "<script>let angle = 0; setInterval(() => {"
+      + " document.getElementById('spinner').style.transform = 'rotate(' + angle++ + 'deg)'; }, 10);</script>";
+
+  private static Playwright playwright;
+  private static Browser browser;
+
+  private Page page;
+  private PlaywrightDriver driver;
+
+  @BeforeAll
+  static void launch() {
+    try {
+      playwright = Playwright.create();
+      browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+    } catch (Exception e) {
+      assumeTrue(false, "Chromium is not available: " + e.getMessage());
+    }
+  }
+
+  @AfterAll
+  static void close() {
+    if (playwright != null) {
+      playwright.close();
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    page = browser.newPage();
+    page.setContent(SPINNER);
+    driver = new PlaywrightDriver(page);
+  }
+
+  @AfterEach
+  void tearDown() {
+    page.close();
+  }
+
+  @Test
+  void testAnimatingInlineStyleIsNotAChange() {
+    driver.observeMutations();
+    assertFalse(driver.awaitMutations(100, 1000));
+  }
+
+  @Test
+  void testStyleShowingAnElementIsAChangeDespiteAnimation() {
+    driver.observeMutations();
+    page.evaluate("setTimeout(() => document.getElementById('banner').style.display = '', 200)");
+
+    long start = System.currentTimeMillis();
+    assertTrue(driver.awaitMutations(100, 10000));
+    assertTrue(System.currentTimeMillis() - start < 5000);
+  }
+}
@@ -1,18 +1,27 @@
 package com.midscene.web.driver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.microsoft.playwright.Keyboard;
 import com.microsoft.playwright.Locator;
 import com.microsoft.playwright.Mouse;
 import com.microsoft.playwright.Page;
+import com.midscene.core.pojo.planning.ActionsItem;
 import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.pojo.type.BySelectorType;
+import com.midscene.core.pojo.type.ReadinessMode;
+import com.midscene.core.service.DomMutationScripts;
+import com.midscene.core.service.ReadinessScripts;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -131,4 +140,52 @@ class PlaywrightDriverTest {
     playwrightDriver.hover(BySelectorType.BY_XPATH, "//div");
     verify(locator).hover();
   }
+
+  @Test
+  void testAwaitMutations() {
+    when(page.evaluate(DomMutationScripts.AWAIT, List.of(300L, 5000L))).thenReturn(true);
+    assertTrue(playwrightDriver.awaitMutations(300, 5000));
+  }
+
+  @Test
+  void testExecuteBatchChecksReadinessOnce() {
+    Locate email = new Locate();
+    email.setX(100);
+    email.setY(200);
+    Locate password = new Locate();
+    password.setX(100);
+    password.setY(260);
+    ActionsItem first = new ActionsItem();
+    first.setType(AIActionType.INPUT);
+    first.setLocate(email);
+    first.setValue("jane@example.com");
+    ActionsItem second = new ActionsItem();
+    second.setType(AIActionType.INPUT);
+    second.setLocate(password);
+    second.setValue("secret");
+    List<ActionsItem> fallback = new ArrayList<>();
+
+    playwrightDriver.executeBatch(List.of(first, second), fallback::add);
+
+    verify(page, times(1)).evaluate("document.readyState");
+    verify(mouse).click(100, 200);
+    verify(keyboard).type("jane@example.com");
+    verify(mouse).click(100, 260);
+    verify(keyboard).type("secret");
+    assertTrue(fallback.isEmpty());
+  }
+
+  @Test
+  void testNetworkIdleReadiness() {
+    when(page.evaluate(ReadinessScripts.NETWORK_IDLE)).thenReturn(false, true);
+    when(page.url()).thenReturn("http://example.com");
+    playwrightDriver.getReadiness().setPollIntervalMs(1);
+
+    playwrightDriver.setReadinessMode(ReadinessMode.NETWORK_IDLE);
+    playwrightDriver.setReadinessMode(ReadinessMode.NETWORK_IDLE);
+    playwrightDriver.getUrl();
+
+    verify(page, times(1)).addInitScript(ReadinessScripts.NETWORK_TRACKER);
+    verify(page, times(2)).evaluate(ReadinessScripts.NETWORK_IDLE);
+  }
 }
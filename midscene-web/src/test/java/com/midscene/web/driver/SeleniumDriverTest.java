@@ -1,18 +1,31 @@
 package com.midscene.web.driver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
+import com.midscene.core.pojo.planning.ActionsItem;
+import com.midscene.core.pojo.planning.Locate;
+import com.midscene.core.pojo.type.AIActionType;
 import com.midscene.core.pojo.type.BySelectorType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -81,4 +94,143 @@ class SeleniumDriverTest {
     seleniumDriver.scrollDown(BySelectorType.BY_XPATH, "//div");
     verify(js).executeScript(anyString(), eq(element));
   }
+
+  @Test
+  void testAwaitMutationsRestoresScriptTimeout() {
+    WebDriver.Options options = mock(WebDriver.Options.class);
+    WebDriver.Timeouts timeouts = mock(WebDriver.Timeouts.class);
+    when(driver.manage()).thenReturn(options);
+    when(options.timeouts()).thenReturn(timeouts);
+    when(timeouts.getScriptTimeout()).thenReturn(Duration.ofSeconds(30));
+    when(js.executeAsyncScript(anyString(), eq(300L), eq(5000L))).thenReturn(true);
+
+    assertTrue(seleniumDriver.awaitMutations(300, 5000));
+    verify(timeouts).scriptTimeout(Duration.ofMillis(6000));
+    verify(timeouts).scriptTimeout(Duration.ofSeconds(30));
+  }
+
+  @Test
+  void testExecuteBatchPerformsOneActionChain() {
+    Locate field = new Locate();
+    field.setX(100);
+    field.setY(200);
+    ActionsItem input = new ActionsItem();
+    input.setType(AIActionType.INPUT);
+    input.setLocate(field);
+    input.setValue("jane@example.com");
+    ActionsItem submit = new ActionsItem();
+    submit.setType(AIActionType.KEYBOARD_PRESS);
+    submit.setKeyName("Enter");
+    List<ActionsItem> fallback = new ArrayList<>();
+
+    seleniumDriver.executeBatch(List.of(input, submit), fallback::add);
+
+    verify((Interactive) driver, times(1)).perform(anyCollection());
+    assertTrue(fallback.isEmpty());
+  }
+
+  @Test
+  void testExecuteBatchFallsBackForSelectorActions() {
+    ActionsItem click = new ActionsItem();
+    click.setType(AIActionType.CLICK);
+    click.setSelectorType(BySelectorType.BY_CSS);
+    click.setElementSelector("#submit");
+    List<ActionsItem> fallback = new ArrayList<>();
+
+    seleniumDriver.executeBatch(List.of(click), fallback::add);
+
+    assertEquals(List.of(click), fallback);
+    verify((Interactive) driver, never()).perform(anyCollection());
+  }
+
+  @Test
+  void testPageLoadIsRecheckedOnlyAfterNavigatingAction() {
+    WebElement element = mock(WebElement.class);
+    when(driver.findElement(By.cssSelector("#next"))).thenReturn(element);
+
+    seleniumDriver.getUrl();
+    seleniumDriver.getPageSource();
+    verify(js, times(1)).executeScript("return document.readyState");
+
+    seleniumDriver.click(BySelectorType.BY_CSS, "#next");
+    seleniumDriver.getUrl();
+    verify(js, times(2)).executeScript("return document.readyState");
+  }
+
+  @Test
+  void testElementIsCachedUntilThePageMayChange() {
+    WebElement element = mock(WebElement.class);
+    when(driver.findElement(By.cssSelector("#name"))).thenReturn(element);
+    when(driver.navigate()).thenReturn(mock(WebDriver.Navigation.class));
+
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    verify(driver, times(1)).findElement(By.cssSelector("#name"));
+
+    seleniumDriver.click(BySelectorType.BY_CSS, "#name");
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    verify(driver, times(2)).findElement(By.cssSelector("#name"));
+
+    seleniumDriver.reload();
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    verify(driver, times(3)).findElement(By.cssSelector("#name"));
+  }
+
+  @Test
+  void testElementIsFoundAgainAfterEachPageChangingAction() {
+    WebElement element = mock(WebElement.class);
+    when(driver.findElement(By.cssSelector("#name"))).thenReturn(element);
+    Locate from = new Locate();
+    from.setX(10);
+    from.setY(20);
+    Locate to = new Locate();
+    to.setX(110);
+    to.setY(20);
+    List<Runnable> actions = List.of(
+        () -> seleniumDriver.rightClick(from),
+        () -> seleniumDriver.rightClick(BySelectorType.BY_CSS, "#name"),
+        () -> seleniumDriver.swipe(from, to, 100),
+        () -> seleniumDriver.dragAndDrop(from, to),
+        () -> seleniumDriver.executeScript("document.body.innerHTML = '';"));
+
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    int lookups = 1;
+    for (Runnable action : actions) {
+      action.run();
+      seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+      verify(driver, times(++lookups)).findElement(By.cssSelector("#name"));
+    }
+  }
+
+  @Test
+  void testEvaluateKeepsCachedElements() {
+    WebElement element = mock(WebElement.class);
+    when(driver.findElement(By.cssSelector("#name"))).thenReturn(element);
+
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+    seleniumDriver.evaluate("document.title");
+    seleniumDriver.clearInput(BySelectorType.BY_CSS, "#name");
+
+    verify(driver, times(1)).findElement(By.cssSelector("#name"));
+  }
+
+  @Test
+  void testStaleElementIsFoundAgain() {
+    WebElement stale = mock(WebElement.class);
+    WebElement fresh = mock(WebElement.class);
+    doThrow(new StaleElementReferenceException("detached")).when(stale).click();
+    when(driver.findElement(By.cssSelector("#next"))).thenReturn(stale, fresh);
+
+    seleniumDriver.click(BySelectorType.BY_CSS, "#next");
+
+    verify(fresh).click();
+  }
+
+  @Test
+  void testScrollToEdgeRunsOneScript() {
+    seleniumDriver.scrollToEdge((Locate) null, "bottom");
+
+    verify(js).executeScript(
+        argThat((String script) -> script.startsWith("return ") && script.contains("\"edge\":\"bottom\"")));
+  }
 }